@@ -0,0 +1,58 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Measures how ParallelBatchSolver scales with the number of threads. Generates an in-memory
+// corpus once, then solves it with 1, 2, 4, ... threads up to the number of cores and prints
+// throughput and speedup over the single-threaded run.
+//
+// Usage: java BatchBenchmark [puzzles] [clues]
+public class BatchBenchmark {
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int clues = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+        byte[] corpus = corpus(count, clues);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        run(corpus, cores, true); // Warm-up
+        System.out.printf("%d puzzles with %d clues, %d cores%n", count, clues, cores);
+        System.out.printf("%-8s %-10s %14s %8s%n", "threads", "order", "puzzles/s", "speedup");
+
+        double baseline = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            for (boolean ordered : new boolean[] {true, false}) {
+                double rate = count / run(corpus, threads, ordered);
+                if (threads == 1 && ordered) {
+                    baseline = rate;
+                }
+                System.out.printf("%-8d %-10s %14.0f %7.2fx%n", threads, ordered ? "ordered" : "unordered",
+                        rate, rate / baseline);
+            }
+            if (threads == cores) {
+                break;
+            }
+        }
+    }
+
+    // Seconds taken to solve the whole corpus
+    private static double run(byte[] corpus, int threads, boolean ordered) throws IOException {
+        ParallelBatchSolver solver = new ParallelBatchSolver(threads, ordered, BitmaskSolver::new);
+        long start = System.nanoTime();
+        solver.run(new ByteArrayInputStream(corpus), OutputStream.nullOutputStream());
+        long elapsed = System.nanoTime() - start;
+        solver.shutdown();
+        return elapsed / 1e9;
+    }
+
+    private static byte[] corpus(int count, int clues) {
+        SudokuGenerator generator = new SudokuGenerator();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * (SudokuBoard.CELLS + 1));
+        byte[] line = new byte[SudokuBoard.CELLS + 1];
+        for (int i = 0; i < count; i++) {
+            SudokuBatch.format(generator.generate(clues), line, 0);
+            out.write(line, 0, line.length);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,320 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+// Constraint-propagation solver: works on a private SudokuBoard whose row, column and box
+// masks give the candidates of a cell, branches on the most-constrained cell (MRV) and
+// places naked and hidden singles after every guess. Backtracking pops the board's undo
+// stack, so a solve never copies or allocates.
+public class BitmaskSolver implements SudokuSolver {
+    // Outcomes of solveBounded
+    static final int UNSOLVABLE = 0;
+    static final int SOLVED = 1;
+    static final int ABORTED = 2;
+
+    // Special results of propagateAndPick
+    static final int FILLED = -1;
+    static final int DEAD_END = -2;
+
+    private static final int[][] UNITS = SudokuBoard.UNITS;
+    private static final int CELLS = SudokuBoard.CELLS;
+
+    private final SudokuBoard work = new SudokuBoard();
+    private final int[] allowed = new int[CELLS]; // per-cell digit filter, normally all digits
+    private int limit; // stop searching once this many solutions are found
+    private int found;
+    private long nodes; // search calls made in the current run
+    private long nodeBudget; // abort once the node count passes this
+    private AtomicBoolean stop; // shared flag another thread may raise; null when unused
+    private boolean hasDeadline;
+    private long deadline; // System.nanoTime() after which the search gives up
+    private LongConsumer progress; // told the node count every 4096 nodes; null when unused
+    private boolean aborted;
+
+    // Instrumentation, touched only when SolverMetrics.ENABLED
+    private long backtracks;
+    private long nakedSingles;
+    private long hiddenSingles;
+    private int depth;
+    private int maxDepth;
+    private long startNanos;
+    private long startCpuNanos;
+
+    public BitmaskSolver() {
+        Arrays.fill(allowed, SudokuBoard.ALL_DIGITS);
+    }
+
+    @Override
+    public boolean solve(SudokuBoard board) {
+        return solveBounded(board, Long.MAX_VALUE, null) == SOLVED;
+    }
+
+    @Override
+    public int countSolutions(SudokuBoard board, int limit) {
+        if (limit <= 0 || !load(board)) {
+            return 0;
+        }
+        search(limit, Long.MAX_VALUE, null);
+        return found;
+    }
+
+    // Solves like solve(), but gives up after nodeBudget search nodes or once the stop flag
+    // is raised; returns SOLVED, UNSOLVABLE or ABORTED
+    int solveBounded(SudokuBoard board, long nodeBudget, AtomicBoolean stop) {
+        if (!load(board)) {
+            return UNSOLVABLE;
+        }
+        return finish(board, search(1, nodeBudget, stop));
+    }
+
+    // Solves like solve(), but gives up once the stop flag is raised or System.nanoTime()
+    // passes the deadline, and reports the node count to progress along the way
+    int solveMonitored(SudokuBoard board, AtomicBoolean stop, long deadline, LongConsumer progress) {
+        if (!load(board)) {
+            return UNSOLVABLE;
+        }
+        prepare(1, Long.MAX_VALUE, stop);
+        this.hasDeadline = true;
+        this.deadline = deadline;
+        this.progress = progress;
+        return finish(board, run());
+    }
+
+    // Turns the outcome of a search into SOLVED, UNSOLVABLE or ABORTED, copying a solution out
+    private int finish(SudokuBoard board, boolean done) {
+        if (aborted) {
+            return ABORTED;
+        }
+        if (!done) {
+            return UNSOLVABLE;
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (board.isEmpty(cell)) {
+                board.place(cell, work.get(cell));
+            }
+        }
+        return SOLVED;
+    }
+
+    // Applies singles to the board in place and returns its most-constrained empty cell, or
+    // FILLED if the singles completed it, or DEAD_END if the board cannot be solved. Used to
+    // split the search tree between threads.
+    int propagateAndPick(SudokuBoard board) {
+        if (!load(board) || !propagate()) {
+            return DEAD_END;
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (board.isEmpty(cell) && !work.isEmpty(cell)) {
+                board.place(cell, work.get(cell));
+            }
+        }
+        int best = pickCell();
+        return best < 0 ? FILLED : best;
+    }
+
+    // True if the board has a solution in which the empty cell holds something other than
+    // digit. When digit was just removed from a unique puzzle, false means it is still unique,
+    // and this costs one search instead of counting to two.
+    boolean hasSolutionWithout(SudokuBoard board, int cell, int digit) {
+        if (!load(board)) {
+            return false;
+        }
+        allowed[cell] = SudokuBoard.ALL_DIGITS & ~(1 << (digit - 1));
+        try {
+            return search(1, Long.MAX_VALUE, null);
+        } finally {
+            allowed[cell] = SudokuBoard.ALL_DIGITS;
+        }
+    }
+
+    // Search calls made by the last solve or count
+    long getNodeCount() {
+        return nodes;
+    }
+
+    // Runs the search until the limit is hit; the first solution is left in the work board
+    private boolean search(int limit, long nodeBudget, AtomicBoolean stop) {
+        prepare(limit, nodeBudget, stop);
+        return run();
+    }
+
+    private boolean run() {
+        boolean done = search();
+        if (SolverMetrics.ENABLED) {
+            SolverMetrics.shared().recordSearch(nodes, backtracks, nakedSingles, hiddenSingles, maxDepth,
+                    System.nanoTime() - startNanos, SolverMetrics.threadCpuNanos() - startCpuNanos);
+        }
+        return done;
+    }
+
+    private void prepare(int limit, long nodeBudget, AtomicBoolean stop) {
+        this.limit = limit;
+        this.found = 0;
+        this.nodes = 0;
+        this.nodeBudget = nodeBudget;
+        this.stop = stop;
+        this.hasDeadline = false;
+        this.progress = null;
+        this.aborted = false;
+        if (SolverMetrics.ENABLED) {
+            backtracks = 0;
+            nakedSingles = 0;
+            hiddenSingles = 0;
+            depth = 0;
+            maxDepth = 0;
+            startNanos = System.nanoTime();
+            startCpuNanos = SolverMetrics.threadCpuNanos();
+        }
+    }
+
+    // Copies the givens into the work board; fails fast on a duplicate given
+    private boolean load(SudokuBoard board) {
+        work.clear();
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = board.get(cell);
+            if (digit == 0) {
+                continue;
+            }
+            if (!work.canPlace(cell, digit)) {
+                return false;
+            }
+            work.place(cell, digit);
+        }
+        return true;
+    }
+
+    private boolean search() {
+        if (++nodes > nodeBudget || ((nodes & 0x3F) == 0 && interrupted())) {
+            aborted = true;
+            return true; // Unwinds the search as if it had finished
+        }
+        int mark = work.mark();
+        if (!propagate()) {
+            work.undo(mark);
+            return false;
+        }
+
+        int best = pickCell();
+        if (best < 0) {
+            found++; // Every cell is filled
+            return found >= limit;
+        }
+
+        int options = candidates(best);
+        while (options != 0) {
+            int bit = options & -options;
+            options ^= bit;
+            int branch = work.mark();
+            work.place(best, Integer.numberOfTrailingZeros(bit) + 1);
+            if (SolverMetrics.ENABLED && ++depth > maxDepth) {
+                maxDepth = depth;
+            }
+            if (search()) {
+                return true;
+            }
+            if (SolverMetrics.ENABLED) {
+                depth--;
+                backtracks++;
+            }
+            work.undo(branch);
+        }
+        work.undo(mark);
+        return false;
+    }
+
+    // Polled every 64 nodes: reports progress, then checks the stop flag and the deadline
+    private boolean interrupted() {
+        if (progress != null && (nodes & 0xFFF) == 0) {
+            progress.accept(nodes);
+        }
+        return (stop != null && stop.get()) || (hasDeadline && System.nanoTime() - deadline > 0);
+    }
+
+    // Most-constrained empty cell (MRV), or -1 if the board is full
+    private int pickCell() {
+        int best = -1;
+        int bestCount = SudokuBoard.SIZE + 1;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (work.isEmpty(cell)) {
+                int count = Integer.bitCount(candidates(cell));
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                    if (count == 2) {
+                        break; // Singles are already gone, so two is the minimum
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int candidates(int cell) {
+        return work.candidates(cell) & allowed[cell];
+    }
+
+    // Places naked and hidden singles until nothing changes; false on a contradiction
+    private boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            // Naked singles: a cell with exactly one candidate left
+            for (int cell = 0; cell < CELLS; cell++) {
+                if (work.isEmpty(cell)) {
+                    int options = candidates(cell);
+                    if (options == 0) {
+                        return false;
+                    }
+                    if ((options & (options - 1)) == 0) {
+                        work.place(cell, Integer.numberOfTrailingZeros(options) + 1);
+                        changed = true;
+                        if (SolverMetrics.ENABLED) {
+                            nakedSingles++;
+                        }
+                    }
+                }
+            }
+
+            // Hidden singles: a digit that fits in only one cell of a unit
+            for (int[] unit : UNITS) {
+                int once = 0;
+                int twice = 0;
+                int placed = 0;
+                for (int cell : unit) {
+                    int digit = work.get(cell);
+                    if (digit != 0) {
+                        placed |= 1 << (digit - 1);
+                    } else {
+                        int options = candidates(cell);
+                        twice |= once & options;
+                        once |= options;
+                    }
+                }
+                if ((once | placed) != SudokuBoard.ALL_DIGITS) {
+                    return false; // Some digit has nowhere to go in this unit
+                }
+                int singles = once & ~twice;
+                if (singles == 0) {
+                    continue;
+                }
+                for (int cell : unit) {
+                    if (work.isEmpty(cell)) {
+                        int options = candidates(cell) & singles;
+                        if (options != 0) {
+                            if ((options & (options - 1)) != 0) {
+                                return false; // Two digits would need the same cell
+                            }
+                            work.place(cell, Integer.numberOfTrailingZeros(options) + 1);
+                            changed = true;
+                            if (SolverMetrics.ENABLED) {
+                                hiddenSingles++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,183 @@
+// Draws the 9x9 board cell by cell onto any Surface, repainting only the cells whose digit or
+// look changed since the last paint. Each cell's look is a handful of flags (given, selected,
+// conflict, checked right or wrong) indexing colour tables built once, so nothing is parsed or
+// laid out per update, and each cell draws its own share of the grid lines, so a cell can be
+// repainted on its own without touching its neighbours.
+//
+// Knows nothing of JavaFX: BoardView puts it on a Canvas, and the render benchmarks drive it
+// headless on a Java2D image. Not thread-safe.
+public class BoardRenderer {
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final int SIZE = SudokuBoard.SIZE;
+
+    public enum Mark { NONE, CORRECT, WRONG }
+
+    // Where the board is drawn; colours are 0xAARRGGBB
+    public interface Surface {
+        void fillRect(double x, double y, double width, double height, int argb);
+
+        void drawDigit(int digit, double centerX, double centerY, int argb);
+    }
+
+    // Cell flags
+    private static final int GIVEN = 1;
+    private static final int SELECTED = 2;
+    private static final int CONFLICT = 4;
+    private static final int CORRECT = 8;
+    private static final int WRONG = 16;
+    private static final int MARKS = CORRECT | WRONG;
+
+    private static final int LINE = 0xFF000000;
+    private static final int[] BACKGROUND = new int[32]; // by flags
+    private static final int[] TEXT = new int[32];
+
+    static {
+        for (int flags = 0; flags < 32; flags++) {
+            BACKGROUND[flags] = (flags & SELECTED) != 0 ? 0xFFADD8E6 // lightblue
+                    : (flags & GIVEN) != 0 ? 0xFFD3D3D3 // lightgrey
+                    : 0xFFFFFFFF;
+            // A check result outranks a clash, as it did when the check restyled every cell
+            TEXT[flags] = (flags & CORRECT) != 0 ? 0xFF008000 // green
+                    : (flags & (CONFLICT | WRONG)) != 0 ? 0xFFFF0000
+                    : 0xFF000000;
+        }
+    }
+
+    private final double cellSize;
+    private final byte[] digits = new byte[CELLS];
+    private final byte[] flags = new byte[CELLS];
+    private final long[] dirty = new long[2]; // one bit per cell
+    private int selected = -1;
+
+    public BoardRenderer(double cellSize) {
+        this.cellSize = cellSize;
+        invalidateAll();
+    }
+
+    // Width and height of the whole board
+    public double getSize() {
+        return SIZE * cellSize;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    // The cell under a point, or -1 outside the board
+    public int cellAt(double x, double y) {
+        if (x < 0 || y < 0 || x >= getSize() || y >= getSize()) {
+            return -1;
+        }
+        return (int) (y / cellSize) * SIZE + (int) (x / cellSize);
+    }
+
+    public int getDigit(int cell) {
+        return digits[cell];
+    }
+
+    public void setDigit(int cell, int digit) {
+        if (digits[cell] != digit) {
+            digits[cell] = (byte) digit;
+            invalidate(cell);
+        }
+    }
+
+    public boolean isGiven(int cell) {
+        return (flags[cell] & GIVEN) != 0;
+    }
+
+    public void setGiven(int cell, boolean given) {
+        setFlag(cell, GIVEN, given);
+    }
+
+    public void setConflict(int cell, boolean conflict) {
+        setFlag(cell, CONFLICT, conflict);
+    }
+
+    public void setMark(int cell, Mark mark) {
+        int bits = mark == Mark.CORRECT ? CORRECT : mark == Mark.WRONG ? WRONG : 0;
+        if ((flags[cell] & MARKS) != bits) {
+            flags[cell] = (byte) (flags[cell] & ~MARKS | bits);
+            invalidate(cell);
+        }
+    }
+
+    public void clearMarks() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            setMark(cell, Mark.NONE);
+        }
+    }
+
+    // The selected cell, -1 for none
+    public int getSelected() {
+        return selected;
+    }
+
+    public void select(int cell) {
+        if (selected == cell) {
+            return;
+        }
+        if (selected >= 0) {
+            setFlag(selected, SELECTED, false);
+        }
+        selected = cell;
+        if (cell >= 0) {
+            setFlag(cell, SELECTED, true);
+        }
+    }
+
+    public boolean isDirty() {
+        return (dirty[0] | dirty[1]) != 0;
+    }
+
+    // Repaint everything on the next paint, e.g. when the surface was cleared
+    public void invalidateAll() {
+        dirty[0] = -1L;
+        dirty[1] = (1L << (CELLS - 64)) - 1;
+    }
+
+    // Draws the cells that changed since the last paint; returns how many that was
+    public int paint(Surface surface) {
+        int painted = 0;
+        for (int word = 0; word < dirty.length; word++) {
+            for (long bits = dirty[word]; bits != 0; bits &= bits - 1) {
+                paintCell(surface, word * 64 + Long.numberOfTrailingZeros(bits));
+                painted++;
+            }
+            dirty[word] = 0;
+        }
+        return painted;
+    }
+
+    // Fills the cell with the line colour, then its background inset by its share of the grid
+    // lines: 1 px between cells and 3 px between boxes (2 + 1 from the cells either side)
+    private void paintCell(Surface surface, int cell) {
+        int row = cell / SIZE;
+        int col = cell % SIZE;
+        double x = col * cellSize;
+        double y = row * cellSize;
+        double left = col % 3 == 0 ? 2 : 1;
+        double top = row % 3 == 0 ? 2 : 1;
+        double right = col == SIZE - 1 ? 2 : col % 3 == 2 ? 1 : 0;
+        double bottom = row == SIZE - 1 ? 2 : row % 3 == 2 ? 1 : 0;
+        int style = flags[cell];
+        surface.fillRect(x, y, cellSize, cellSize, LINE);
+        surface.fillRect(x + left, y + top, cellSize - left - right, cellSize - top - bottom, BACKGROUND[style]);
+        if (digits[cell] != 0) {
+            surface.drawDigit(digits[cell], x + (cellSize + left - right) / 2, y + (cellSize + top - bottom) / 2,
+                    TEXT[style]);
+        }
+    }
+
+    private void setFlag(int cell, int flag, boolean on) {
+        int updated = on ? flags[cell] | flag : flags[cell] & ~flag;
+        if (updated != flags[cell]) {
+            flags[cell] = (byte) updated;
+            invalidate(cell);
+        }
+    }
+
+    private void invalidate(int cell) {
+        dirty[cell >>> 6] |= 1L << (cell & 63);
+    }
+}
@@ -0,0 +1,204 @@
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+// The board as one Canvas node instead of 81 styled text fields. BoardRenderer keeps what
+// each cell shows and which cells changed; changes made in one go (a new puzzle, a check
+// result) are painted together once, on the next pulse, and only the changed cells are drawn.
+//
+// Clicking selects a cell; digits 1-9 fill the selected cell, 0, Backspace and Delete clear
+// it, and the arrow keys move the selection. Given cells cannot be edited.
+public class BoardView extends Region {
+    // Told about every edit the player makes; programmatic changes are not reported
+    public interface EditListener {
+        void cellEdited(int cell, int digit);
+    }
+
+    private static final double CELL_SIZE = 50;
+    private static final double FONT_SIZE = 20;
+
+    private final BoardRenderer renderer = new BoardRenderer(CELL_SIZE);
+    private final Canvas canvas = new Canvas(renderer.getSize(), renderer.getSize());
+    private final CanvasSurface surface = new CanvasSurface(canvas.getGraphicsContext2D());
+    private EditListener editListener;
+    private boolean paintQueued;
+
+    public BoardView() {
+        getChildren().add(canvas);
+        setFocusTraversable(true);
+        setMinSize(renderer.getSize(), renderer.getSize());
+        setMaxSize(renderer.getSize(), renderer.getSize());
+        addEventHandler(MouseEvent.MOUSE_PRESSED, this::onMousePressed);
+        addEventHandler(KeyEvent.KEY_PRESSED, this::onKeyPressed);
+        renderer.paint(surface);
+    }
+
+    public void setEditListener(EditListener listener) {
+        this.editListener = listener;
+    }
+
+    public int getDigit(int cell) {
+        return renderer.getDigit(cell);
+    }
+
+    public void setDigit(int cell, int digit) {
+        renderer.setDigit(cell, digit);
+        requestPaint();
+    }
+
+    public boolean isGiven(int cell) {
+        return renderer.isGiven(cell);
+    }
+
+    public void setGiven(int cell, boolean given) {
+        renderer.setGiven(cell, given);
+        requestPaint();
+    }
+
+    public void setConflict(int cell, boolean conflict) {
+        renderer.setConflict(cell, conflict);
+        requestPaint();
+    }
+
+    public void setMark(int cell, BoardRenderer.Mark mark) {
+        renderer.setMark(cell, mark);
+        requestPaint();
+    }
+
+    public void clearMarks() {
+        renderer.clearMarks();
+        requestPaint();
+    }
+
+    // The selected cell, -1 for none
+    public int getSelected() {
+        return renderer.getSelected();
+    }
+
+    public void select(int cell) {
+        renderer.select(cell);
+        requestPaint();
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return renderer.getSize();
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return renderer.getSize();
+    }
+
+    // One paint per pulse however many cells changed before it
+    private void requestPaint() {
+        if (!paintQueued && renderer.isDirty()) {
+            paintQueued = true;
+            Platform.runLater(() -> {
+                paintQueued = false;
+                renderer.paint(surface);
+            });
+        }
+    }
+
+    private void onMousePressed(MouseEvent event) {
+        requestFocus();
+        int cell = renderer.cellAt(event.getX(), event.getY());
+        if (cell >= 0) {
+            select(cell);
+        }
+    }
+
+    private void onKeyPressed(KeyEvent event) {
+        int selected = renderer.getSelected();
+        if (selected < 0) {
+            return;
+        }
+        switch (event.getCode()) {
+            case UP:
+                select(selected >= 9 ? selected - 9 : selected);
+                break;
+            case DOWN:
+                select(selected < 72 ? selected + 9 : selected);
+                break;
+            case LEFT:
+                select(selected % 9 > 0 ? selected - 1 : selected);
+                break;
+            case RIGHT:
+                select(selected % 9 < 8 ? selected + 1 : selected);
+                break;
+            case BACK_SPACE:
+            case DELETE:
+                edit(selected, 0);
+                break;
+            default:
+                String text = event.getText();
+                if (text.length() == 1 && text.charAt(0) >= '0' && text.charAt(0) <= '9') {
+                    edit(selected, text.charAt(0) - '0');
+                } else {
+                    return;
+                }
+        }
+        event.consume();
+    }
+
+    private void edit(int cell, int digit) {
+        if (renderer.isGiven(cell) || renderer.getDigit(cell) == digit) {
+            return;
+        }
+        setDigit(cell, digit);
+        if (editListener != null) {
+            editListener.cellEdited(cell, digit);
+        }
+    }
+
+    // Draws through a GraphicsContext, with the few colours the renderer uses converted once
+    private static final class CanvasSurface implements BoardRenderer.Surface {
+        private static final String[] DIGITS = {"", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+
+        private final GraphicsContext graphics;
+        private final int[] keys = new int[8];
+        private final Color[] colors = new Color[8];
+        private int count;
+
+        CanvasSurface(GraphicsContext graphics) {
+            this.graphics = graphics;
+            graphics.setFont(Font.font(FONT_SIZE));
+            graphics.setTextAlign(TextAlignment.CENTER);
+            graphics.setTextBaseline(VPos.CENTER);
+        }
+
+        @Override
+        public void fillRect(double x, double y, double width, double height, int argb) {
+            graphics.setFill(color(argb));
+            graphics.fillRect(x, y, width, height);
+        }
+
+        @Override
+        public void drawDigit(int digit, double centerX, double centerY, int argb) {
+            graphics.setFill(color(argb));
+            graphics.fillText(DIGITS[digit], centerX, centerY);
+        }
+
+        private Color color(int argb) {
+            for (int i = 0; i < count; i++) {
+                if (keys[i] == argb) {
+                    return colors[i];
+                }
+            }
+            Color color = Color.rgb((argb >>> 16) & 0xFF, (argb >>> 8) & 0xFF, argb & 0xFF, ((argb >>> 24) & 0xFF) / 255.0);
+            if (count < keys.length) {
+                keys[count] = argb;
+                colors[count++] = color;
+            }
+            return color;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Arrays;
+
+// Canonical representative of a puzzle's symmetry class, as produced by Canonicalizer, with its
+// 64-bit hash. Equal forms mean the puzzles are the same up to relabeling, transposition and
+// line permutations, so the form serves as a key for deduplication and caching; hashCode and
+// the first step of equals use the precomputed hash.
+public final class CanonicalForm {
+    private static final ThreadLocal<Canonicalizer> CANONICALIZERS = ThreadLocal.withInitial(Canonicalizer::new);
+
+    private final byte[] cells;
+    private final long hash;
+
+    CanonicalForm(byte[] cells, long hash) {
+        this.cells = cells;
+        this.hash = hash;
+    }
+
+    public static CanonicalForm of(SudokuBoard board) {
+        Canonicalizer canonicalizer = CANONICALIZERS.get();
+        canonicalizer.canonicalize(board);
+        return canonicalizer.form();
+    }
+
+    public static CanonicalForm of(int[][] board) {
+        return of(SudokuBoard.of(board));
+    }
+
+    // 64-bit hash of the form alone, without building the object
+    public static long fingerprint(int[][] board) {
+        return CANONICALIZERS.get().canonicalize(SudokuBoard.of(board));
+    }
+
+    public long hash() {
+        return hash;
+    }
+
+    public SudokuBoard toBoard() {
+        SudokuBoard board = new SudokuBoard();
+        for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+            if (cells[cell] != 0) {
+                board.place(cell, cells[cell]);
+            }
+        }
+        return board;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CanonicalForm)) {
+            return false;
+        }
+        CanonicalForm form = (CanonicalForm) other;
+        return hash == form.hash && Arrays.equals(cells, form.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    // One character per cell, '0' for blanks
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(SudokuBoard.CELLS);
+        for (byte cell : cells) {
+            sb.append((char) ('0' + cell));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,353 @@
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+// Maps a board to the canonical representative of its symmetry class: the same board for
+// every puzzle that differs only by digit relabeling, transposition, band and stack
+// permutations, and row and column permutations inside them. The representative is the
+// lexicographically smallest image (blanks before digits, digits relabeled in order of first
+// appearance) among the line orders that sort rows, columns, bands and stacks by invariants
+// no symmetry can change: clue counts, and the counts of the lines and digit frequencies each
+// clue meets. Only lines whose invariants tie are permuted, which for real puzzles is almost
+// always none, so a canonicalization is a few passes over 81 cells.
+//
+// When ties are so widespread that more than MAX_CANDIDATES orders would have to be compared
+// (near-empty boards, complete grids), the search stops early. The result is then still a valid
+// image of the input under a known transform, so anything keyed on it stays correct, but two
+// equivalent boards of that kind may end up with different forms.
+//
+// The transform found last is kept, so boards of the same shape (a solution, say) can be carried
+// into canonical space and back. Instances reuse their buffers and are not thread-safe.
+//
+// Usage: java Canonicalizer [input|-]
+// Writes the first puzzle of every symmetry class in the input, one per line.
+public class Canonicalizer {
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final int MAX_CANDIDATES = 512; // line orders compared per orientation
+    private static final int[][] PERMS = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+
+    // Mixed key contributions, looked up instead of hashed per clue
+    private static final long[] CROSS_MIX = new long[16 * 16]; // [crossing line count][digit frequency]
+    private static final long[] BLOCK_MIX = new long[4]; // [clues of the line inside one block]
+
+    static {
+        for (int i = 0; i < CROSS_MIX.length; i++) {
+            CROSS_MIX[i] = mix(i);
+        }
+        for (int i = 0; i < BLOCK_MIX.length; i++) {
+            BLOCK_MIX[i] = mix(i | 1 << 16);
+        }
+    }
+
+    private final byte[] rowMajor = new byte[CELLS];
+    private final byte[] colMajor = new byte[CELLS]; // the input transposed
+    private byte[] source; // one of the two, for the orientation being tried
+    private final byte[] candidate = new byte[CELLS];
+    private final byte[] best = new byte[CELLS];
+    private final int[] candidateRelabel = new int[SIZE + 1];
+    private final int[] bestRelabel = new int[SIZE + 1];
+    private final int[] bestRows = new int[SIZE];
+    private final int[] bestCols = new int[SIZE];
+    private boolean bestTransposed;
+    private boolean found;
+
+    private final int[] rowCount = new int[SIZE];
+    private final int[] colCount = new int[SIZE];
+    private final int[] digitCount = new int[SIZE + 1];
+    private final long[] rowKey = new long[SIZE];
+    private final long[] colKey = new long[SIZE];
+    private final int[] clueCells = new int[CELLS];
+    private final int[] rowBlockCount = new int[3 * SIZE]; // [row][stack] clue counts
+    private final int[] colBlockCount = new int[3 * SIZE]; // [column][band]
+    private final int[][] rowOrders = new int[6 * 6 * 6 * 6][SIZE];
+    private final int[][] colOrders = new int[6 * 6 * 6 * 6][SIZE];
+    private final int[] outer = new int[6];
+    private final int[][] inner = new int[3][6];
+    private final int[] innerCount = new int[3];
+    private final long[] blockKeys = new long[3];
+
+    public static void main(String[] args) throws IOException {
+        InputStream in = args.length > 0 && !args[0].equals("-") ? new FileInputStream(args[0]) : System.in;
+        Canonicalizer canonicalizer = new Canonicalizer();
+        SudokuBoard board = new SudokuBoard();
+        Set<CanonicalForm> seen = new HashSet<>();
+        byte[] line = new byte[4096];
+        long puzzles = 0;
+        long invalid = 0;
+        try (InputStream input = new BufferedInputStream(in, 1 << 16)) {
+            int length;
+            while ((length = SudokuBatch.readLine(input, line)) >= 0) {
+                if (length == 0) {
+                    continue;
+                }
+                puzzles++;
+                if (!SudokuBatch.parse(line, 0, length, board)) {
+                    invalid++;
+                    continue;
+                }
+                canonicalizer.canonicalize(board);
+                if (seen.add(canonicalizer.form())) {
+                    System.out.println(board);
+                }
+            }
+        }
+        System.err.printf("%d puzzles, %d symmetry classes, %d invalid%n", puzzles, seen.size(), invalid);
+    }
+
+    // Canonicalizes the board; returns the 64-bit hash of its canonical form
+    public long canonicalize(SudokuBoard board) {
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                byte digit = (byte) board.get(row * SIZE + col);
+                rowMajor[row * SIZE + col] = digit;
+                colMajor[col * SIZE + row] = digit;
+            }
+        }
+        // Transposing swaps the roles of rows and columns, so the keys are computed once
+        computeKeys();
+        found = false;
+        source = rowMajor;
+        search(rowKey, colKey, false);
+        source = colMajor;
+        search(colKey, rowKey, true);
+        return hash(best);
+    }
+
+    // The canonical form found by the last canonicalize call
+    public CanonicalForm form() {
+        return new CanonicalForm(best.clone(), hash(best));
+    }
+
+    public long hash() {
+        return hash(best);
+    }
+
+    // Applies the last transform: out becomes the canonical-space image of board
+    public void toCanonical(SudokuBoard board, SudokuBoard out) {
+        out.clear();
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int digit = board.get(sourceCell(row, col));
+                if (digit != 0) {
+                    out.place(row * SIZE + col, bestRelabel[digit]);
+                }
+            }
+        }
+    }
+
+    // Undoes the last transform: out becomes the board whose canonical-space image is canonical
+    public void fromCanonical(SudokuBoard canonical, SudokuBoard out) {
+        int[] inverse = new int[SIZE + 1];
+        for (int digit = 1; digit <= SIZE; digit++) {
+            inverse[bestRelabel[digit]] = digit;
+        }
+        out.clear();
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int digit = canonical.get(row * SIZE + col);
+                if (digit != 0) {
+                    out.place(sourceCell(row, col), inverse[digit]);
+                }
+            }
+        }
+    }
+
+    // Copies the last transform: for every canonical cell the input cell it was taken from, and
+    // for every input digit its canonical label
+    void copyTransform(byte[] cells, byte[] relabel) {
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                cells[row * SIZE + col] = (byte) sourceCell(row, col);
+            }
+        }
+        for (int digit = 0; digit <= SIZE; digit++) {
+            relabel[digit] = (byte) bestRelabel[digit];
+        }
+    }
+
+    // Cell of the input that canonical (row, col) was taken from
+    private int sourceCell(int row, int col) {
+        int from = bestRows[row];
+        int to = bestCols[col];
+        return bestTransposed ? to * SIZE + from : from * SIZE + to;
+    }
+
+    // Tries every line order the invariants allow for the current orientation
+    private void search(long[] rowKeys, long[] colKeys, boolean transposed) {
+        int rows = lineOrders(rowKeys, rowOrders);
+        int cols = lineOrders(colKeys, colOrders);
+        int budget = MAX_CANDIDATES;
+        for (int r = 0; r < rows && budget > 0; r++) {
+            for (int c = 0; c < cols && budget > 0; c++, budget--) {
+                if (tryOrder(rowOrders[r], colOrders[c])) {
+                    System.arraycopy(candidate, 0, best, 0, CELLS);
+                    System.arraycopy(candidateRelabel, 0, bestRelabel, 0, SIZE + 1);
+                    System.arraycopy(rowOrders[r], 0, bestRows, 0, SIZE);
+                    System.arraycopy(colOrders[c], 0, bestCols, 0, SIZE);
+                    bestTransposed = transposed;
+                    found = true;
+                }
+            }
+        }
+    }
+
+    // Builds the image for one line order; true if it beats the best so far
+    private boolean tryOrder(int[] rows, int[] cols) {
+        for (int digit = 1; digit <= SIZE; digit++) {
+            candidateRelabel[digit] = 0;
+        }
+        int next = 1;
+        boolean smaller = !found; // decided once the first differing cell is seen
+        for (int row = 0; row < SIZE; row++) {
+            int base = rows[row] * SIZE;
+            for (int col = 0; col < SIZE; col++) {
+                int cell = row * SIZE + col;
+                int digit = source[base + cols[col]];
+                int label = 0;
+                if (digit != 0) {
+                    label = candidateRelabel[digit];
+                    if (label == 0) {
+                        label = candidateRelabel[digit] = next++;
+                    }
+                }
+                if (!smaller) {
+                    if (label > best[cell]) {
+                        return false;
+                    }
+                    smaller = label < best[cell];
+                }
+                candidate[cell] = (byte) label;
+            }
+        }
+        if (!smaller) {
+            return false; // Same image as the best; keep the first transform found
+        }
+        // Digits the board never uses take the remaining labels, so solutions map over too
+        for (int digit = 1; digit <= SIZE; digit++) {
+            if (candidateRelabel[digit] == 0) {
+                candidateRelabel[digit] = next++;
+            }
+        }
+        return true;
+    }
+
+    // Invariant key of every row and column of the input: unchanged by any symmetry that maps
+    // one line to another
+    private void computeKeys() {
+        for (int i = 0; i < SIZE; i++) {
+            rowCount[i] = 0;
+            colCount[i] = 0;
+            digitCount[i + 1] = 0;
+        }
+        for (int i = 0; i < 3 * SIZE; i++) {
+            rowBlockCount[i] = 0;
+            colBlockCount[i] = 0;
+        }
+        int clues = 0;
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int digit = rowMajor[row * SIZE + col];
+                if (digit != 0) {
+                    rowCount[row]++;
+                    colCount[col]++;
+                    digitCount[digit]++;
+                    rowBlockCount[row * 3 + col / 3]++;
+                    colBlockCount[col * 3 + row / 3]++;
+                    clueCells[clues++] = row * SIZE + col;
+                }
+            }
+        }
+        for (int i = 0; i < SIZE; i++) {
+            rowKey[i] = 0;
+            colKey[i] = 0;
+        }
+        // Sums of mixed values are order-independent, so the keys do not depend on line order
+        for (int i = 0; i < clues; i++) {
+            int cell = clueCells[i];
+            int row = cell / SIZE;
+            int col = cell - row * SIZE;
+            int frequency = digitCount[rowMajor[cell]];
+            rowKey[row] += CROSS_MIX[colCount[col] << 4 | frequency];
+            colKey[col] += CROSS_MIX[rowCount[row] << 4 | frequency];
+        }
+        // Blocks of three lines add how their clues spread over the crossing bands or stacks
+        for (int line = 0; line < SIZE; line++) {
+            for (int block = 0; block < 3; block++) {
+                rowKey[line] += BLOCK_MIX[rowBlockCount[line * 3 + block]];
+                colKey[line] += BLOCK_MIX[colBlockCount[line * 3 + block]];
+            }
+        }
+        // Clue count first, so fuller lines sort ahead
+        for (int i = 0; i < SIZE; i++) {
+            rowKey[i] = (long) rowCount[i] << 56 | rowKey[i] >>> 8;
+            colKey[i] = (long) colCount[i] << 56 | colKey[i] >>> 8;
+        }
+    }
+
+    // Every line order that sorts blocks, then lines inside blocks, by descending key
+    private int lineOrders(long[] keys, int[][] orders) {
+        for (int block = 0; block < 3; block++) {
+            blockKeys[block] = mix(keys[block * 3]) + mix(keys[block * 3 + 1]) + mix(keys[block * 3 + 2]);
+        }
+        int outerCount = sortedPerms(blockKeys, 0, outer);
+        int count = 0;
+        for (int o = 0; o < outerCount; o++) {
+            int[] blocks = PERMS[outer[o]];
+            for (int i = 0; i < 3; i++) {
+                innerCount[i] = sortedPerms(keys, blocks[i] * 3, inner[i]);
+            }
+            for (int a = 0; a < innerCount[0]; a++) {
+                for (int b = 0; b < innerCount[1]; b++) {
+                    for (int c = 0; c < innerCount[2]; c++) {
+                        int[] order = orders[count++];
+                        int[] first = PERMS[inner[0][a]];
+                        int[] second = PERMS[inner[1][b]];
+                        int[] third = PERMS[inner[2][c]];
+                        for (int j = 0; j < 3; j++) {
+                            order[j] = blocks[0] * 3 + first[j];
+                            order[3 + j] = blocks[1] * 3 + second[j];
+                            order[6 + j] = blocks[2] * 3 + third[j];
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    // Indices into PERMS of the orders that sort keys[offset..offset+2] descending
+    private static int sortedPerms(long[] keys, int offset, int[] out) {
+        int count = 0;
+        for (int p = 0; p < PERMS.length; p++) {
+            int[] perm = PERMS[p];
+            if (keys[offset + perm[0]] >= keys[offset + perm[1]] && keys[offset + perm[1]] >= keys[offset + perm[2]]) {
+                out[count++] = p;
+            }
+        }
+        return count;
+    }
+
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // 64-bit hash of a form, over its cells packed four bits each
+    static long hash(byte[] form) {
+        long hash = 0;
+        for (int cell = 0; cell < CELLS; cell += 16) {
+            long packed = 0;
+            for (int i = cell; i < Math.min(cell + 16, CELLS); i++) {
+                packed = packed << 4 | form[i];
+            }
+            hash = mix(hash ^ packed);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,73 @@
+// Live rule checking for a board that is being edited. Keeps how many times each digit occurs
+// in each row, column and box, so changing a cell updates three counters out and three in,
+// and asking whether a cell clashes with a peer is three lookups. Nothing is ever rescanned.
+public class ConflictTracker {
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int CELLS = SudokuBoard.CELLS;
+
+    // The 20 cells sharing a row, column or box with each cell
+    static final int[][] PEERS = new int[CELLS][20];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int count = 0;
+            for (int other = 0; other < CELLS; other++) {
+                if (other != cell && (SudokuBoard.ROW_OF[other] == SudokuBoard.ROW_OF[cell]
+                        || SudokuBoard.COL_OF[other] == SudokuBoard.COL_OF[cell]
+                        || SudokuBoard.BOX_OF[other] == SudokuBoard.BOX_OF[cell])) {
+                    PEERS[cell][count++] = other;
+                }
+            }
+        }
+    }
+
+    private final byte[] cells = new byte[CELLS];
+    private final byte[][] rowCounts = new byte[SIZE][SIZE + 1]; // [row][digit]
+    private final byte[][] colCounts = new byte[SIZE][SIZE + 1];
+    private final byte[][] boxCounts = new byte[SIZE][SIZE + 1];
+    private int duplicates; // extra copies of digits over all units; 0 means no conflicts
+
+    // Changes one cell (0 clears it) in constant time
+    public void set(int cell, int digit) {
+        int old = cells[cell];
+        if (old == digit) {
+            return;
+        }
+        int row = SudokuBoard.ROW_OF[cell];
+        int col = SudokuBoard.COL_OF[cell];
+        int box = SudokuBoard.BOX_OF[cell];
+        if (old != 0) {
+            duplicates -= (rowCounts[row][old]-- > 1 ? 1 : 0)
+                    + (colCounts[col][old]-- > 1 ? 1 : 0)
+                    + (boxCounts[box][old]-- > 1 ? 1 : 0);
+        }
+        if (digit != 0) {
+            duplicates += (++rowCounts[row][digit] > 1 ? 1 : 0)
+                    + (++colCounts[col][digit] > 1 ? 1 : 0)
+                    + (++boxCounts[box][digit] > 1 ? 1 : 0);
+        }
+        cells[cell] = (byte) digit;
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    // True if the cell's digit also appears elsewhere in its row, column or box
+    public boolean isConflict(int cell) {
+        int digit = cells[cell];
+        return digit != 0 && (rowCounts[SudokuBoard.ROW_OF[cell]][digit] > 1
+                || colCounts[SudokuBoard.COL_OF[cell]][digit] > 1
+                || boxCounts[SudokuBoard.BOX_OF[cell]][digit] > 1);
+    }
+
+    public boolean hasConflicts() {
+        return duplicates > 0;
+    }
+
+    public void clear() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            set(cell, 0);
+        }
+    }
+}
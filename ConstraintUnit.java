@@ -0,0 +1,182 @@
+// A group of cells whose digits must all differ, optionally also adding up to a given sum:
+// the building block of every rule set a VariantSolver understands. Rows, columns and boxes are
+// units; so are the diagonals of X-Sudoku, the irregular regions of Jigsaw and the cages of
+// Killer Sudoku.
+//
+// The digits a unit still allows depend only on the digits already placed in it, so each unit
+// answers from a table of all 512 possible used-digit masks, built once. For a sum unit (a cage)
+// the table comes from the combinations of distinct digits of the cage's size that reach its
+// sum: a digit stays allowed only while some combination containing everything placed so far
+// still contains it.
+public final class ConstraintUnit {
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int ALL = SudokuBoard.ALL_DIGITS;
+
+    // COMBINATIONS[size][sum]: masks of distinct digits with that many digits and that sum
+    private static final int[][][] COMBINATIONS = new int[SIZE + 1][46][];
+
+    static {
+        int[][] counts = new int[SIZE + 1][46];
+        for (int mask = 1; mask <= ALL; mask++) {
+            counts[Integer.bitCount(mask)][digitSum(mask)]++;
+        }
+        for (int size = 0; size <= SIZE; size++) {
+            for (int sum = 0; sum < 46; sum++) {
+                COMBINATIONS[size][sum] = new int[counts[size][sum]];
+                counts[size][sum] = 0;
+            }
+        }
+        for (int mask = 1; mask <= ALL; mask++) {
+            int size = Integer.bitCount(mask);
+            int sum = digitSum(mask);
+            COMBINATIONS[size][sum][counts[size][sum]++] = mask;
+        }
+    }
+
+    private final String name;
+    private final int[] cells;
+    private final int sum; // 0 for no sum
+    private final int[] allowed = new int[ALL + 1]; // [digits used] -> digits still allowed
+
+    private ConstraintUnit(String name, int[] cells, int sum) {
+        if (cells.length == 0 || cells.length > SIZE) {
+            throw new IllegalArgumentException(name + ": a unit has 1 to " + SIZE + " cells, not " + cells.length);
+        }
+        for (int cell : cells) {
+            if (cell < 0 || cell >= SudokuBoard.CELLS) {
+                throw new IllegalArgumentException(name + ": no cell " + cell);
+            }
+        }
+        if (sum != 0 && (sum > 45 || COMBINATIONS[cells.length][sum].length == 0)) {
+            throw new IllegalArgumentException(name + ": " + cells.length + " distinct digits never add up to " + sum);
+        }
+        this.name = name;
+        this.cells = cells.clone();
+        this.sum = sum;
+        for (int used = 0; used <= ALL; used++) {
+            if (sum == 0) {
+                allowed[used] = ALL & ~used;
+                continue;
+            }
+            int digits = 0;
+            for (int combination : COMBINATIONS[cells.length][sum]) {
+                if ((combination & used) == used) {
+                    digits |= combination & ~used;
+                }
+            }
+            allowed[used] = digits;
+        }
+    }
+
+    public static ConstraintUnit row(int row) {
+        return line("row " + (row + 1), row * SIZE, 1);
+    }
+
+    public static ConstraintUnit column(int col) {
+        return line("column " + (col + 1), col, SIZE);
+    }
+
+    public static ConstraintUnit box(int box) {
+        return new ConstraintUnit("box " + (box + 1), SudokuBoard.UNITS[2 * SIZE + box], 0);
+    }
+
+    // Top-left to bottom-right
+    public static ConstraintUnit mainDiagonal() {
+        return line("main diagonal", 0, SIZE + 1);
+    }
+
+    // Top-right to bottom-left
+    public static ConstraintUnit antiDiagonal() {
+        return line("anti-diagonal", SIZE - 1, SIZE - 1);
+    }
+
+    // Any nine cells that must hold every digit once, such as a Jigsaw region
+    public static ConstraintUnit region(String name, int... cells) {
+        if (cells.length != SIZE) {
+            throw new IllegalArgumentException(name + ": a region has " + SIZE + " cells, not " + cells.length);
+        }
+        return new ConstraintUnit(name, cells, 0);
+    }
+
+    // Killer cage: distinct digits adding up to sum
+    public static ConstraintUnit cage(int sum, int... cells) {
+        if (sum <= 0) {
+            throw new IllegalArgumentException("Cage sum must be positive: " + sum);
+        }
+        return new ConstraintUnit("cage " + sum, cells, sum);
+    }
+
+    private static ConstraintUnit line(String name, int start, int step) {
+        int[] cells = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            cells[i] = start + i * step;
+        }
+        return new ConstraintUnit(name, cells, 0);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // The cells, in the order given; do not modify
+    int[] cells() {
+        return cells;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    public int getSum() {
+        return sum;
+    }
+
+    // True if every digit must appear, which is what makes hidden singles work for the unit
+    boolean isComplete() {
+        return cells.length == SIZE;
+    }
+
+    // Digits that may still go into an empty cell of the unit, given the digits already in it
+    int allowed(int used) {
+        return allowed[used];
+    }
+
+    // True if the unit's digits on the board break none of its rules (blanks are fine)
+    public boolean isSatisfiedBy(SudokuBoard board) {
+        int used = 0;
+        int total = 0;
+        boolean full = true;
+        for (int cell : cells) {
+            int digit = board.get(cell);
+            if (digit == 0) {
+                full = false;
+                continue;
+            }
+            int bit = 1 << (digit - 1);
+            if ((used & bit) != 0) {
+                return false;
+            }
+            used |= bit;
+            total += digit;
+        }
+        if (sum == 0) {
+            return true;
+        }
+        return full ? total == sum : Integer.bitCount(allowed[used]) >= cells.length - Integer.bitCount(used);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static int digitSum(int mask) {
+        int total = 0;
+        for (int digit = 1; digit <= SIZE; digit++) {
+            if ((mask & 1 << (digit - 1)) != 0) {
+                total += digit;
+            }
+        }
+        return total;
+    }
+}
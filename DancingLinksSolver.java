@@ -0,0 +1,219 @@
+// Knuth's Algorithm X over dancing links. Sudoku becomes an exact-cover problem with
+// 324 constraint columns (cell filled, row-digit, column-digit, box-digit) and 729 candidate
+// rows (one per cell and digit). The whole link structure is built once in the constructor;
+// a search only covers and uncovers it in place, so solving allocates nothing.
+public class DancingLinksSolver implements SudokuSolver {
+    private static final int SIZE = 9;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int COLUMNS = 4 * CELLS;
+    private static final int ROWS = CELLS * SIZE;
+    private static final int ROOT = 0;
+    private static final int NODES = 1 + COLUMNS + 4 * ROWS; // root, headers, 4 nodes per row
+
+    private final int[] left = new int[NODES];
+    private final int[] right = new int[NODES];
+    private final int[] up = new int[NODES];
+    private final int[] down = new int[NODES];
+    private final int[] column = new int[NODES]; // header node of each node
+    private final int[] rowOf = new int[NODES]; // candidate row (cell * 9 + digit - 1) of each node
+    private final int[] firstNode = new int[ROWS]; // first of the four nodes of each candidate row
+    private final int[] size = new int[1 + COLUMNS]; // live nodes in each column
+    private final boolean[] covered = new boolean[1 + COLUMNS];
+
+    private final int[] selected = new int[CELLS]; // candidate rows on the current search path
+    private final int[] solution = new int[CELLS]; // first complete solution found
+    private int limit;
+    private int found;
+
+    public DancingLinksSolver() {
+        for (int header = ROOT; header <= COLUMNS; header++) {
+            left[header] = header == ROOT ? COLUMNS : header - 1;
+            right[header] = header == COLUMNS ? ROOT : header + 1;
+            up[header] = header;
+            down[header] = header;
+            column[header] = header;
+        }
+
+        int node = COLUMNS + 1;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            int box = (row / 3) * 3 + col / 3;
+            for (int digit = 0; digit < SIZE; digit++) {
+                int candidate = cell * SIZE + digit;
+                int first = node;
+                firstNode[candidate] = first;
+                int[] headers = {
+                        1 + cell,
+                        1 + CELLS + row * SIZE + digit,
+                        1 + 2 * CELLS + col * SIZE + digit,
+                        1 + 3 * CELLS + box * SIZE + digit
+                };
+                for (int i = 0; i < 4; i++, node++) {
+                    int header = headers[i];
+                    column[node] = header;
+                    rowOf[node] = candidate;
+                    // Append at the bottom of the column
+                    up[node] = up[header];
+                    down[node] = header;
+                    down[up[header]] = node;
+                    up[header] = node;
+                    size[header]++;
+                    // Link into a circular list with the rest of the row
+                    left[node] = i == 0 ? first + 3 : node - 1;
+                    right[node] = i == 3 ? first : node + 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean solve(SudokuBoard board) {
+        if (run(board, 1) == 0) {
+            return false;
+        }
+        for (int i = 0; i < CELLS; i++) {
+            int candidate = solution[i];
+            int cell = candidate / SIZE;
+            if (board.isEmpty(cell)) {
+                board.place(cell, candidate % SIZE + 1);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(SudokuBoard board, int limit) {
+        return limit <= 0 ? 0 : run(board, limit);
+    }
+
+    // Selects the givens, searches, then restores the links exactly as they were
+    private int run(SudokuBoard board, int limit) {
+        this.limit = limit;
+        this.found = 0;
+
+        int givens = 0;
+        boolean consistent = true;
+        for (int cell = 0; cell < CELLS && consistent; cell++) {
+            int digit = board.get(cell);
+            if (digit == 0) {
+                continue;
+            }
+            if (digit < 1 || digit > SIZE) {
+                consistent = false;
+                break;
+            }
+            int first = firstNode[cell * SIZE + digit - 1];
+            for (int node = first; ; ) {
+                if (covered[column[node]]) {
+                    consistent = false; // Two givens clash
+                    break;
+                }
+                node = right[node];
+                if (node == first) {
+                    break;
+                }
+            }
+            if (consistent) {
+                selectRow(first);
+                selected[givens++] = first;
+            }
+        }
+
+        if (consistent) {
+            search(givens);
+        }
+
+        for (int i = givens - 1; i >= 0; i--) {
+            unselectRow(selected[i]);
+        }
+        return found;
+    }
+
+    // Returns true once enough solutions have been found
+    private boolean search(int depth) {
+        if (right[ROOT] == ROOT) {
+            if (found == 0) {
+                for (int i = 0; i < depth; i++) {
+                    solution[i] = rowOf[selected[i]];
+                }
+            }
+            found++;
+            return found >= limit;
+        }
+
+        // Branch on the column with the fewest remaining options
+        int best = right[ROOT];
+        for (int header = right[best]; header != ROOT; header = right[header]) {
+            if (size[header] < size[best]) {
+                best = header;
+                if (size[best] <= 1) {
+                    break;
+                }
+            }
+        }
+        if (size[best] == 0) {
+            return false;
+        }
+
+        cover(best);
+        boolean done = false;
+        for (int node = down[best]; node != best && !done; node = down[node]) {
+            selected[depth] = node;
+            for (int other = right[node]; other != node; other = right[other]) {
+                cover(column[other]);
+            }
+            done = search(depth + 1);
+            for (int other = left[node]; other != node; other = left[other]) {
+                uncover(column[other]);
+            }
+        }
+        uncover(best);
+        return done;
+    }
+
+    private void selectRow(int first) {
+        int node = first;
+        do {
+            cover(column[node]);
+            node = right[node];
+        } while (node != first);
+    }
+
+    private void unselectRow(int first) {
+        int node = left[first];
+        while (true) {
+            uncover(column[node]);
+            if (node == first) {
+                break;
+            }
+            node = left[node];
+        }
+    }
+
+    private void cover(int header) {
+        covered[header] = true;
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for (int row = down[header]; row != header; row = down[row]) {
+            for (int node = right[row]; node != row; node = right[node]) {
+                up[down[node]] = up[node];
+                down[up[node]] = down[node];
+                size[column[node]]--;
+            }
+        }
+    }
+
+    private void uncover(int header) {
+        for (int row = up[header]; row != header; row = up[row]) {
+            for (int node = left[row]; node != row; node = left[node]) {
+                size[column[node]]++;
+                up[down[node]] = node;
+                down[up[node]] = node;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+        covered[header] = false;
+    }
+}
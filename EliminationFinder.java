@@ -0,0 +1,391 @@
+// The elimination techniques of LogicSolver's ladder, from pointing up to Swordfish, written
+// once for both of their users: LogicSolver applies each elimination and moves on, HintEngine
+// shows it to the player with the cells behind it. find() looks at an array of pencil marks
+// (9-bit masks, 0 for filled cells) and reports the first elimination in ladder order without
+// changing anything: the technique, the digits to strike, the cells to strike them from and the
+// cells that justify it. describe() puts the last one into words, only when a caller asks.
+//
+// Reuses its buffers from one find() to the next; not thread-safe.
+final class EliminationFinder {
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int CELLS = SudokuBoard.CELLS;
+
+    // What the last successful find() found
+    private LogicSolver.Technique technique;
+    private int removed; // digits to strike from every target
+    private final int[] targets = new int[CELLS];
+    private int targetCount;
+    private final int[] reasons = new int[CELLS];
+    private int reasonCount;
+    // For describe(): the units, digits or cells the technique worked with
+    private int digit;
+    private int unit;
+    private int crossing;
+    private int kept;
+    private int base;
+    private int baseLines;
+    private int pivot;
+    private int first;
+    private int second;
+
+    private int[] candidates;
+
+    // Scratch space for the subset and fish searches
+    private final int[] members = new int[SIZE];
+    private final int[] positions = new int[SIZE + 1];
+    private final int[] digits = new int[SIZE];
+    private final int[] spots = new int[SIZE];
+    private final int[] lines = new int[SIZE];
+
+    // Looks for the cheapest elimination; false if none of the techniques strikes anything
+    boolean find(int[] candidates) {
+        this.candidates = candidates;
+        return pointing()
+                || claiming()
+                || nakedSubset(2, LogicSolver.Technique.NAKED_PAIR)
+                || hiddenSubset(2, LogicSolver.Technique.HIDDEN_PAIR)
+                || nakedSubset(3, LogicSolver.Technique.NAKED_TRIPLE)
+                || hiddenSubset(3, LogicSolver.Technique.HIDDEN_TRIPLE)
+                || fish(2, LogicSolver.Technique.X_WING)
+                || xyWing()
+                || fish(3, LogicSolver.Technique.SWORDFISH);
+    }
+
+    LogicSolver.Technique getTechnique() {
+        return technique;
+    }
+
+    // Digits to strike from every target, as a 9-bit mask
+    int getRemoved() {
+        return removed;
+    }
+
+    int getTargetCount() {
+        return targetCount;
+    }
+
+    int getTarget(int i) {
+        return targets[i];
+    }
+
+    int[] copyTargets() {
+        return java.util.Arrays.copyOf(targets, targetCount);
+    }
+
+    int[] copyReasons() {
+        return java.util.Arrays.copyOf(reasons, reasonCount);
+    }
+
+    // The last elimination in words, without the cells it strikes from
+    String describe() {
+        switch (technique) {
+            case POINTING:
+                return digit + " in " + LogicSolver.unitName(crossing) + " points along " + LogicSolver.unitName(unit);
+            case CLAIMING:
+                return digit + " in " + LogicSolver.unitName(crossing) + " is claimed by " + LogicSolver.unitName(unit);
+            case NAKED_PAIR:
+            case NAKED_TRIPLE:
+                return LogicSolver.digitNames(removed) + " in " + LogicSolver.unitName(unit);
+            case HIDDEN_PAIR:
+            case HIDDEN_TRIPLE:
+                return LogicSolver.digitNames(kept) + " only fit these cells of " + LogicSolver.unitName(unit);
+            case X_WING:
+            case SWORDFISH:
+                return digit + " in " + (base == 0 ? "rows " : "columns ") + LogicSolver.lineNumbers(baseLines);
+            default:
+                return "pivot " + LogicSolver.cellName(pivot) + " with " + LogicSolver.cellName(first) + " and "
+                        + LogicSolver.cellName(second);
+        }
+    }
+
+    // A digit confined to one line inside a box cannot appear elsewhere on that line
+    private boolean pointing() {
+        for (int box = 0; box < SIZE; box++) {
+            for (int digit = 1; digit <= SIZE; digit++) {
+                int bit = 1 << (digit - 1);
+                int rows = 0;
+                int cols = 0;
+                for (int cell : SudokuBoard.UNITS[2 * SIZE + box]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        rows |= 1 << SudokuBoard.ROW_OF[cell];
+                        cols |= 1 << SudokuBoard.COL_OF[cell];
+                    }
+                }
+                if (Integer.bitCount(rows) == 1 && eliminateOutside(Integer.numberOfTrailingZeros(rows),
+                        2 * SIZE + box, digit, LogicSolver.Technique.POINTING)) {
+                    return true;
+                }
+                if (Integer.bitCount(cols) == 1 && eliminateOutside(SIZE + Integer.numberOfTrailingZeros(cols),
+                        2 * SIZE + box, digit, LogicSolver.Technique.POINTING)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // A digit confined to one box inside a line cannot appear elsewhere in that box
+    private boolean claiming() {
+        for (int line = 0; line < 2 * SIZE; line++) {
+            for (int digit = 1; digit <= SIZE; digit++) {
+                int bit = 1 << (digit - 1);
+                int boxes = 0;
+                for (int cell : SudokuBoard.UNITS[line]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        boxes |= 1 << SudokuBoard.BOX_OF[cell];
+                    }
+                }
+                if (Integer.bitCount(boxes) == 1 && eliminateOutside(2 * SIZE + Integer.numberOfTrailingZeros(boxes),
+                        line, digit, LogicSolver.Technique.CLAIMING)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // The digit in the cells of one unit outside the crossing unit, whose cells with the digit
+    // are the reason
+    private boolean eliminateOutside(int unit, int crossing, int digit, LogicSolver.Technique technique) {
+        int bit = 1 << (digit - 1);
+        targetCount = 0;
+        for (int cell : SudokuBoard.UNITS[unit]) {
+            if ((candidates[cell] & bit) != 0 && !LogicSolver.inUnit(cell, crossing)) {
+                targets[targetCount++] = cell;
+            }
+        }
+        if (targetCount == 0) {
+            return false;
+        }
+        reasonCount = 0;
+        for (int cell : SudokuBoard.UNITS[crossing]) {
+            if ((candidates[cell] & bit) != 0 && LogicSolver.inUnit(cell, unit)) {
+                reasons[reasonCount++] = cell;
+            }
+        }
+        this.technique = technique;
+        this.removed = bit;
+        this.digit = digit;
+        this.unit = unit;
+        this.crossing = crossing;
+        return true;
+    }
+
+    // n cells of a unit holding only n digits between them: no other cell there can have them
+    private boolean nakedSubset(int size, LogicSolver.Technique technique) {
+        for (int unit = 0; unit < 3 * SIZE; unit++) {
+            int[] cells = SudokuBoard.UNITS[unit];
+            int count = 0;
+            for (int cell : cells) {
+                int bits = Integer.bitCount(candidates[cell]);
+                if (bits >= 2 && bits <= size) {
+                    members[count++] = cell;
+                }
+            }
+            // Pairs take c == count only, which stands for "no third member"
+            for (int a = 0; a < count; a++) {
+                for (int b = a + 1; b < count; b++) {
+                    int pair = candidates[members[a]] | candidates[members[b]];
+                    for (int c = size == 2 ? count : b + 1; c <= count; c++) {
+                        int third = c < count ? members[c] : -1;
+                        int union = third < 0 ? pair : pair | candidates[third];
+                        if (Integer.bitCount(union) != size || (size == 3) != (third >= 0)) {
+                            continue;
+                        }
+                        targetCount = 0;
+                        for (int cell : cells) {
+                            if (cell != members[a] && cell != members[b] && cell != third
+                                    && (candidates[cell] & union) != 0) {
+                                targets[targetCount++] = cell;
+                            }
+                        }
+                        if (targetCount > 0) {
+                            reasons[0] = members[a];
+                            reasons[1] = members[b];
+                            reasons[2] = third;
+                            reasonCount = size;
+                            this.technique = technique;
+                            this.removed = union;
+                            this.unit = unit;
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // n digits of a unit that fit in only n cells: those cells can hold nothing else
+    private boolean hiddenSubset(int size, LogicSolver.Technique technique) {
+        for (int unit = 0; unit < 3 * SIZE; unit++) {
+            int[] cells = SudokuBoard.UNITS[unit];
+            for (int digit = 1; digit <= SIZE; digit++) {
+                positions[digit] = 0;
+            }
+            for (int i = 0; i < SIZE; i++) {
+                for (int mask = candidates[cells[i]]; mask != 0; mask &= mask - 1) {
+                    positions[Integer.numberOfTrailingZeros(mask) + 1] |= 1 << i;
+                }
+            }
+            int count = 0;
+            for (int digit = 1; digit <= SIZE; digit++) {
+                int n = Integer.bitCount(positions[digit]);
+                if (n >= 2 && n <= size) {
+                    digits[count++] = digit;
+                }
+            }
+            for (int a = 0; a < count; a++) {
+                for (int b = a + 1; b < count; b++) {
+                    for (int c = size == 2 ? count : b + 1; c <= count; c++) {
+                        int where = positions[digits[a]] | positions[digits[b]];
+                        int keep = 1 << (digits[a] - 1) | 1 << (digits[b] - 1);
+                        if (c < count) {
+                            where |= positions[digits[c]];
+                            keep |= 1 << (digits[c] - 1);
+                        }
+                        if (Integer.bitCount(where) != size || (size == 3) != (c < count)) {
+                            continue;
+                        }
+                        // Every other digit goes from those cells; only they can lose any
+                        int strike = 0;
+                        targetCount = 0;
+                        for (int i = 0; i < SIZE; i++) {
+                            if ((where & 1 << i) != 0 && (candidates[cells[i]] & ~keep) != 0) {
+                                strike |= candidates[cells[i]] & ~keep;
+                                targets[targetCount++] = cells[i];
+                            }
+                        }
+                        if (targetCount > 0) {
+                            reasonCount = 0;
+                            for (int i = 0; i < SIZE; i++) {
+                                if ((where & 1 << i) != 0) {
+                                    reasons[reasonCount++] = cells[i];
+                                }
+                            }
+                            this.technique = technique;
+                            this.removed = strike;
+                            this.kept = keep;
+                            this.unit = unit;
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // X-Wing (size 2) and Swordfish (size 3): a digit whose places in n rows fall in the same n
+    // columns takes those columns over, and the same with rows and columns swapped
+    private boolean fish(int size, LogicSolver.Technique technique) {
+        for (int digit = 1; digit <= SIZE; digit++) {
+            int bit = 1 << (digit - 1);
+            for (int base = 0; base < 2; base++) { // 0: rows as base lines, 1: columns
+                int count = 0;
+                for (int line = 0; line < SIZE; line++) {
+                    spots[line] = 0;
+                    int[] cells = SudokuBoard.UNITS[base * SIZE + line];
+                    for (int i = 0; i < SIZE; i++) {
+                        if ((candidates[cells[i]] & bit) != 0) {
+                            spots[line] |= 1 << i;
+                        }
+                    }
+                    int n = Integer.bitCount(spots[line]);
+                    if (n >= 2 && n <= size) {
+                        lines[count++] = line;
+                    }
+                }
+                for (int a = 0; a < count; a++) {
+                    for (int b = a + 1; b < count; b++) {
+                        for (int c = size == 2 ? count : b + 1; c <= count; c++) {
+                            int cover = spots[lines[a]] | spots[lines[b]] | (c < count ? spots[lines[c]] : 0);
+                            int baseLines = 1 << lines[a] | 1 << lines[b] | (c < count ? 1 << lines[c] : 0);
+                            if (Integer.bitCount(cover) != size || (size == 3) != (c < count)) {
+                                continue;
+                            }
+                            if (eliminateFish(base, cover, baseLines, digit, technique)) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // The digit in the cover lines everywhere except where they cross the base lines
+    private boolean eliminateFish(int base, int cover, int baseLines, int digit, LogicSolver.Technique technique) {
+        int bit = 1 << (digit - 1);
+        targetCount = 0;
+        for (int mask = cover; mask != 0; mask &= mask - 1) {
+            int[] cells = SudokuBoard.UNITS[(1 - base) * SIZE + Integer.numberOfTrailingZeros(mask)];
+            for (int i = 0; i < SIZE; i++) {
+                if ((baseLines & 1 << i) == 0 && (candidates[cells[i]] & bit) != 0) {
+                    targets[targetCount++] = cells[i];
+                }
+            }
+        }
+        if (targetCount == 0) {
+            return false;
+        }
+        reasonCount = 0;
+        for (int mask = baseLines; mask != 0; mask &= mask - 1) {
+            for (int cell : SudokuBoard.UNITS[base * SIZE + Integer.numberOfTrailingZeros(mask)]) {
+                if ((candidates[cell] & bit) != 0) {
+                    reasons[reasonCount++] = cell;
+                }
+            }
+        }
+        this.technique = technique;
+        this.removed = bit;
+        this.digit = digit;
+        this.base = base;
+        this.baseLines = baseLines;
+        return true;
+    }
+
+    // Pivot {x,y} seeing pincers {x,z} and {y,z}: one of the pincers is z, so no cell seeing
+    // both can be
+    private boolean xyWing() {
+        for (int pivot = 0; pivot < CELLS; pivot++) {
+            int xy = candidates[pivot];
+            if (Integer.bitCount(xy) != 2) {
+                continue;
+            }
+            for (int first : ConflictTracker.PEERS[pivot]) {
+                int xz = candidates[first];
+                if (Integer.bitCount(xz) != 2 || Integer.bitCount(xz & xy) != 1) {
+                    continue;
+                }
+                int z = xz & ~xy;
+                int yz = (xy & ~xz) | z;
+                for (int second : ConflictTracker.PEERS[pivot]) {
+                    if (candidates[second] != yz) {
+                        continue;
+                    }
+                    targetCount = 0;
+                    for (int cell : ConflictTracker.PEERS[first]) {
+                        if (cell != second && LogicSolver.sees(cell, second) && (candidates[cell] & z) != 0) {
+                            targets[targetCount++] = cell;
+                        }
+                    }
+                    if (targetCount > 0) {
+                        reasons[0] = pivot;
+                        reasons[1] = first;
+                        reasons[2] = second;
+                        reasonCount = 3;
+                        this.technique = LogicSolver.Technique.XY_WING;
+                        this.removed = z;
+                        this.pivot = pivot;
+                        this.first = first;
+                        this.second = second;
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
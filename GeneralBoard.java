@@ -0,0 +1,249 @@
+import java.util.Arrays;
+
+// Board of any box size: n×n boxes of n×n cells, so 4×4 (n = 2), the classic 9×9 (n = 3),
+// 16×16, 25×25 and beyond. Same idea as SudokuBoard, generalized: values in a flat int array and
+// the digits used by every row, column and box kept as bitsets, so candidates are a few word
+// operations. Digit d is bit (d - 1); sets of up to 64 digits take one long, larger sides span
+// several words per set. The 9×9 code keeps using SudokuBoard, which is specialized for it.
+public final class GeneralBoard {
+    // Characters for digits 1..35 in text form; '.' or '0' is a blank
+    static final String DIGITS = "123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private final int box;
+    private final int side;
+    private final int cellCount;
+    private final int words; // longs per digit set
+
+    private final int[] values;
+    private final long[] rowUsed; // [row * words + word]
+    private final long[] colUsed;
+    private final long[] boxUsed;
+    private final long[] full; // every digit of the side
+
+    final int[] rowOf;
+    final int[] colOf;
+    final int[] boxOf;
+
+    public GeneralBoard(int box) {
+        if (box < 1) {
+            throw new IllegalArgumentException("Box size must be at least 1: " + box);
+        }
+        this.box = box;
+        this.side = box * box;
+        this.cellCount = side * side;
+        this.words = (side + 63) >>> 6;
+        this.values = new int[cellCount];
+        this.rowUsed = new long[side * words];
+        this.colUsed = new long[side * words];
+        this.boxUsed = new long[side * words];
+        this.full = new long[words];
+        for (int digit = 1; digit <= side; digit++) {
+            full[(digit - 1) >>> 6] |= 1L << (digit - 1);
+        }
+        this.rowOf = new int[cellCount];
+        this.colOf = new int[cellCount];
+        this.boxOf = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            rowOf[cell] = cell / side;
+            colOf[cell] = cell % side;
+            boxOf[cell] = (rowOf[cell] / box) * box + colOf[cell] / box;
+        }
+    }
+
+    // Board from a square grid whose side is a perfect square; 0 marks blanks
+    public static GeneralBoard of(int[][] grid) {
+        int box = (int) Math.round(Math.sqrt(grid.length));
+        if (box * box != grid.length) {
+            throw new IllegalArgumentException("Side " + grid.length + " is not a perfect square");
+        }
+        GeneralBoard board = new GeneralBoard(box);
+        for (int row = 0; row < board.side; row++) {
+            for (int col = 0; col < board.side; col++) {
+                int digit = grid[row][col];
+                if (digit < 0 || digit > board.side) {
+                    throw new IllegalArgumentException("Digit " + digit + " out of range at " + row + "," + col);
+                }
+                if (digit != 0) {
+                    board.place(row * board.side + col, digit);
+                }
+            }
+        }
+        return board;
+    }
+
+    // Board from one character per cell, row by row (see DIGITS); whitespace is skipped
+    public static GeneralBoard parse(String text, int box) {
+        GeneralBoard board = new GeneralBoard(box);
+        int cell = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (cell == board.cellCount) {
+                throw new IllegalArgumentException("More than " + board.cellCount + " cells at position " + i);
+            }
+            if (c != '.' && c != '0') {
+                int digit = DIGITS.indexOf(Character.toUpperCase(c)) + 1;
+                if (digit < 1 || digit > board.side) {
+                    throw new IllegalArgumentException("Bad digit '" + c + "' at position " + i);
+                }
+                board.place(cell, digit);
+            }
+            cell++;
+        }
+        if (cell != board.cellCount) {
+            throw new IllegalArgumentException("Expected " + board.cellCount + " cells, got " + cell);
+        }
+        return board;
+    }
+
+    public int getBox() {
+        return box;
+    }
+
+    public int getSide() {
+        return side;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    int words() {
+        return words;
+    }
+
+    public int get(int cell) {
+        return values[cell];
+    }
+
+    public int get(int row, int col) {
+        return values[row * side + col];
+    }
+
+    public boolean isEmpty(int cell) {
+        return values[cell] == 0;
+    }
+
+    public boolean canPlace(int cell, int digit) {
+        int word = (digit - 1) >>> 6;
+        long bit = 1L << (digit - 1);
+        return values[cell] == 0
+                && ((rowUsed[rowOf[cell] * words + word] | colUsed[colOf[cell] * words + word]
+                | boxUsed[boxOf[cell] * words + word]) & bit) == 0;
+    }
+
+    // Writes the candidates of an empty cell into out (words longs); returns how many there are
+    public int candidates(int cell, long[] out) {
+        int r = rowOf[cell] * words;
+        int c = colOf[cell] * words;
+        int b = boxOf[cell] * words;
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            out[w] = ~(rowUsed[r + w] | colUsed[c + w] | boxUsed[b + w]) & full[w];
+            count += Long.bitCount(out[w]);
+        }
+        return count;
+    }
+
+    // Digits already used in a unit: rows are units 0..side-1, columns side..2*side-1, boxes after
+    long usedWord(int unit, int word) {
+        int kind = unit / side;
+        int index = (unit % side) * words + word;
+        return kind == 0 ? rowUsed[index] : kind == 1 ? colUsed[index] : boxUsed[index];
+    }
+
+    long fullWord(int word) {
+        return full[word];
+    }
+
+    // Fills an empty cell; the caller makes sure the digit fits
+    public void place(int cell, int digit) {
+        int word = (digit - 1) >>> 6;
+        long bit = 1L << (digit - 1);
+        values[cell] = digit;
+        rowUsed[rowOf[cell] * words + word] |= bit;
+        colUsed[colOf[cell] * words + word] |= bit;
+        boxUsed[boxOf[cell] * words + word] |= bit;
+    }
+
+    // Empties a cell filled by place()
+    public void remove(int cell) {
+        int digit = values[cell];
+        if (digit == 0) {
+            return;
+        }
+        int word = (digit - 1) >>> 6;
+        long bit = ~(1L << (digit - 1));
+        values[cell] = 0;
+        rowUsed[rowOf[cell] * words + word] &= bit;
+        colUsed[colOf[cell] * words + word] &= bit;
+        boxUsed[boxOf[cell] * words + word] &= bit;
+    }
+
+    public int filledCount() {
+        int count = 0;
+        for (int value : values) {
+            count += value != 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+    }
+
+    // Copies another board of the same box size
+    public void copyFrom(GeneralBoard other) {
+        if (other.box != box) {
+            throw new IllegalArgumentException("Box sizes differ: " + other.box + " and " + box);
+        }
+        System.arraycopy(other.values, 0, values, 0, cellCount);
+        System.arraycopy(other.rowUsed, 0, rowUsed, 0, rowUsed.length);
+        System.arraycopy(other.colUsed, 0, colUsed, 0, colUsed.length);
+        System.arraycopy(other.boxUsed, 0, boxUsed, 0, boxUsed.length);
+    }
+
+    // True if no digit appears twice in a row, column or box
+    public boolean isConsistent() {
+        GeneralBoard check = new GeneralBoard(box);
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (values[cell] != 0) {
+                if (!check.canPlace(cell, values[cell])) {
+                    return false;
+                }
+                check.place(cell, values[cell]);
+            }
+        }
+        return true;
+    }
+
+    public boolean isSolved() {
+        return filledCount() == cellCount && isConsistent();
+    }
+
+    public int[][] toArray() {
+        int[][] grid = new int[side][side];
+        for (int cell = 0; cell < cellCount; cell++) {
+            grid[rowOf[cell]][colOf[cell]] = values[cell];
+        }
+        return grid;
+    }
+
+    // One character per cell as accepted by parse(); sides above 35 have no text form
+    @Override
+    public String toString() {
+        if (side > DIGITS.length()) {
+            return "GeneralBoard[" + side + "x" + side + ", " + filledCount() + " filled]";
+        }
+        StringBuilder sb = new StringBuilder(cellCount);
+        for (int value : values) {
+            sb.append(value == 0 ? '.' : DIGITS.charAt(value - 1));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.SplittableRandom;
+
+// Grids and unique puzzles of any box size, the GeneralBoard counterpart of GridGenerator and
+// SudokuGenerator. A grid starts from random permutations in the diagonal boxes (which never
+// constrain each other) and is completed by the solver trying digits in random order. On big
+// sides an unlucky start can send that search into a long detour, so it runs on a node budget
+// and simply starts over from a fresh random start when the budget runs out.
+//
+// Not thread-safe; use one instance per thread.
+public class GeneralGenerator {
+    private static final long GRID_NODE_BUDGET_PER_CELL = 20;
+    private static final long UNIQUENESS_NODE_BUDGET = 200; // per removal check
+
+    private final GeneralSolver solver = new GeneralSolver();
+
+    public GeneralBoard generateGrid(int box, long seed) {
+        GeneralBoard grid = new GeneralBoard(box);
+        fillGrid(grid, new SplittableRandom(seed));
+        return grid;
+    }
+
+    // Puzzle with the given number of clues, or as close as uniqueness allows, and exactly one
+    // solution. The same seed always gives the same puzzle.
+    public GeneralBoard generate(int box, int clues, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        GeneralBoard board = new GeneralBoard(box);
+        fillGrid(board, random);
+        removeNumbers(board, clues, random);
+        return board;
+    }
+
+    private void fillGrid(GeneralBoard grid, SplittableRandom random) {
+        int box = grid.getBox();
+        int side = grid.getSide();
+        int[] digits = new int[side];
+        while (true) {
+            grid.clear();
+            for (int b = 0; b < box; b++) { // Diagonal boxes
+                permutation(random, digits);
+                for (int i = 0; i < side; i++) {
+                    grid.place((b * box + i / box) * side + b * box + i % box, digits[i] + 1);
+                }
+            }
+            long budget = GRID_NODE_BUDGET_PER_CELL * grid.getCellCount();
+            if (solver.solveRandom(grid, random, budget) == GeneralSolver.SOLVED) {
+                return;
+            }
+        }
+    }
+
+    // Tries each filled cell once in random order and keeps a removal only if the puzzle still
+    // provably has a single solution; a check that runs out of budget keeps the clue
+    private void removeNumbers(GeneralBoard board, int clues, SplittableRandom random) {
+        int cellCount = board.getCellCount();
+        int[] order = new int[cellCount];
+        permutation(random, order);
+        int remaining = board.filledCount();
+        for (int i = 0; i < cellCount && remaining > clues; i++) {
+            int cell = order[i];
+            int digit = board.get(cell);
+            board.remove(cell);
+            if (solver.hasSolutionWithout(board, cell, digit, UNIQUENESS_NODE_BUDGET)) {
+                board.place(cell, digit); // Another solution appeared, or may have; put it back
+                continue;
+            }
+            remaining--;
+        }
+    }
+
+    // Fills the array with a uniformly random permutation of 0..length-1 (Fisher-Yates)
+    private static void permutation(SplittableRandom random, int[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}
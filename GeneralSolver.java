@@ -0,0 +1,271 @@
+import java.util.SplittableRandom;
+
+// Backtracking solver for GeneralBoard, the any-size counterpart of BitmaskSolver. Before each
+// branch it fills in naked singles (cells with one candidate left) and hidden singles (digits
+// with one place left in a row, column or box) until nothing changes, then branches on the empty
+// cell with the fewest candidates. Every placement goes on a trail, so backtracking just empties
+// the trailed cells again. On 16×16 and 25×25 grids the hidden singles do most of the work;
+// without them the search would be hopeless.
+//
+// Not thread-safe; use one instance per thread.
+public class GeneralSolver {
+    static final int UNSOLVABLE = 0;
+    static final int SOLVED = 1;
+    static final int ABORTED = 2; // node budget used up
+
+    private GeneralBoard work;
+    private int[][] units; // cells of each row, column and box
+    private int[] trail;
+    private int trailSize;
+    private long[] candidates; // scratch for one cell's set
+    private long[] cache; // [cell * words + word] candidates as of the start of a propagation round
+    private long[] options; // [trailSize * words + word] candidates of the cell each open branch tries
+    private long[] once; // scratch for hidden singles
+    private long[] twice;
+
+    private int limit;
+    private int found;
+    private long nodes;
+    private long nodeBudget;
+    private boolean aborted;
+    private GeneralBoard solution; // first solution found, if wanted
+    private SplittableRandom random; // null tries digits in order
+    private int excludedCell = -1;
+    private int excludedDigit;
+
+    // Fills the empty cells; leaves the board unchanged and returns false if there is no solution
+    public boolean solve(GeneralBoard board) {
+        return run(board, 1, Long.MAX_VALUE, null, board) == SOLVED;
+    }
+
+    // Number of solutions, counting no further than limit
+    public int countSolutions(GeneralBoard board, int limit) {
+        run(board, limit, Long.MAX_VALUE, null, null);
+        return found;
+    }
+
+    // Solves trying digits in random order, for generating grids; gives up after nodeBudget nodes
+    int solveRandom(GeneralBoard board, SplittableRandom random, long nodeBudget) {
+        return run(board, 1, nodeBudget, random, board);
+    }
+
+    // True if the board has a solution other than putting digit in cell; ABORTED counts as true,
+    // so callers relying on a "no" for uniqueness stay safe when the search is cut short
+    boolean hasSolutionWithout(GeneralBoard board, int cell, int digit, long nodeBudget) {
+        excludedCell = cell;
+        excludedDigit = digit;
+        try {
+            return run(board, 1, nodeBudget, null, null) != UNSOLVABLE;
+        } finally {
+            excludedCell = -1;
+        }
+    }
+
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    private int run(GeneralBoard board, int limit, long nodeBudget, SplittableRandom random, GeneralBoard solution) {
+        prepare(board);
+        this.limit = limit;
+        this.found = 0;
+        this.nodes = 0;
+        this.nodeBudget = nodeBudget;
+        this.aborted = false;
+        this.random = random;
+        this.solution = solution;
+        if (work.isConsistent()) {
+            search();
+        }
+        this.solution = null;
+        this.random = null;
+        if (found > 0) {
+            return SOLVED;
+        }
+        return aborted ? ABORTED : UNSOLVABLE;
+    }
+
+    private void prepare(GeneralBoard board) {
+        if (work == null || work.getBox() != board.getBox()) {
+            int side = board.getSide();
+            work = new GeneralBoard(board.getBox());
+            trail = new int[board.getCellCount()];
+            candidates = new long[work.words()];
+            cache = new long[board.getCellCount() * work.words()];
+            options = new long[board.getCellCount() * work.words()];
+            once = new long[work.words()];
+            twice = new long[work.words()];
+            units = new int[3 * side][side];
+            int[] filled = new int[3 * side];
+            for (int cell = 0; cell < board.getCellCount(); cell++) {
+                units[work.rowOf[cell]][filled[work.rowOf[cell]]++] = cell;
+                units[side + work.colOf[cell]][filled[side + work.colOf[cell]]++] = cell;
+                units[2 * side + work.boxOf[cell]][filled[2 * side + work.boxOf[cell]]++] = cell;
+            }
+        }
+        work.copyFrom(board);
+        trailSize = 0;
+    }
+
+    private void search() {
+        if (++nodes > nodeBudget) {
+            aborted = true;
+            return;
+        }
+        int mark = trailSize;
+        if (!propagate()) {
+            undo(mark);
+            return;
+        }
+        int cell = pickCell();
+        if (cell < 0) {
+            if (++found == 1 && solution != null) {
+                solution.copyFrom(work);
+            }
+            undo(mark);
+            return;
+        }
+        // Every branch on the path places at least one cell, so the trail size at the branch
+        // is a slot of its own for the options, kept apart from the scratch reused further down
+        int words = candidates.length;
+        int base = trailSize * words;
+        int count = candidates(cell, candidates);
+        System.arraycopy(candidates, 0, options, base, words);
+        int skip = random == null ? 0 : random.nextInt(count); // start at a random candidate
+        for (int pass = 0; pass < 2; pass++) {
+            int index = 0;
+            for (int w = 0; w < words; w++) {
+                for (long bits = options[base + w]; bits != 0; bits &= bits - 1, index++) {
+                    if (pass == 0 ? index < skip : index >= skip) {
+                        continue;
+                    }
+                    work.place(cell, (w << 6) + Long.numberOfTrailingZeros(bits) + 1);
+                    trail[trailSize++] = cell;
+                    search();
+                    undo(trailSize - 1);
+                    if (found >= limit || aborted) {
+                        undo(mark);
+                        return;
+                    }
+                }
+            }
+        }
+        undo(mark);
+    }
+
+    // Places naked and hidden singles until none are left; false on a contradiction. Each round
+    // reads every cell's candidates once into the cache. Placements during the round only shrink
+    // the real sets, so stale cached sets can hide a single until the next round but never invent
+    // one: every placement is checked against the live board first. When a round places
+    // nothing, the cache is exact, and pickCell reads it.
+    private boolean propagate() {
+        int side = work.getSide();
+        int cellCount = work.getCellCount();
+        int words = work.words();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (!work.isEmpty(cell)) {
+                    continue;
+                }
+                int count = candidates(cell, candidates);
+                if (count == 0) {
+                    return false;
+                }
+                System.arraycopy(candidates, 0, cache, cell * words, words);
+                if (count == 1) {
+                    placeSingle(cell, candidates);
+                    changed = true;
+                }
+            }
+            for (int unit = 0; unit < 3 * side; unit++) {
+                for (int w = 0; w < words; w++) {
+                    once[w] = 0;
+                    twice[w] = 0;
+                }
+                for (int cell : units[unit]) {
+                    if (work.isEmpty(cell)) {
+                        for (int w = 0, i = cell * words; w < words; w++, i++) {
+                            twice[w] |= once[w] & cache[i];
+                            once[w] |= cache[i];
+                        }
+                    }
+                }
+                for (int w = 0; w < words; w++) {
+                    if ((once[w] | work.usedWord(unit, w)) != work.fullWord(w)) {
+                        return false; // A digit has nowhere to go
+                    }
+                    for (long hidden = once[w] & ~twice[w]; hidden != 0; hidden &= hidden - 1) {
+                        long bit = hidden & -hidden;
+                        for (int cell : units[unit]) {
+                            if (work.isEmpty(cell) && (cache[cell * words + w] & bit) != 0) {
+                                candidates(cell, candidates);
+                                if ((candidates[w] & bit) != 0) {
+                                    work.place(cell, (w << 6) + Long.numberOfTrailingZeros(bit) + 1);
+                                    trail[trailSize++] = cell;
+                                    changed = true;
+                                }
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void placeSingle(int cell, long[] set) {
+        for (int w = 0; w < set.length; w++) {
+            if (set[w] != 0) {
+                work.place(cell, (w << 6) + Long.numberOfTrailingZeros(set[w]) + 1);
+                trail[trailSize++] = cell;
+                return;
+            }
+        }
+    }
+
+    // Empty cell with the fewest candidates, -1 if the board is full; runs right after
+    // propagate, so the cache is current
+    private int pickCell() {
+        int words = work.words();
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int cell = 0; cell < work.getCellCount(); cell++) {
+            if (work.isEmpty(cell)) {
+                int count = 0;
+                for (int w = 0, i = cell * words; w < words; w++, i++) {
+                    count += Long.bitCount(cache[i]);
+                }
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                    if (count <= 2) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int candidates(int cell, long[] out) {
+        int count = work.candidates(cell, out);
+        if (cell == excludedCell) {
+            long bit = 1L << (excludedDigit - 1);
+            int word = (excludedDigit - 1) >>> 6;
+            if ((out[word] & bit) != 0) {
+                out[word] &= ~bit;
+                count--;
+            }
+        }
+        return count;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            work.remove(trail[--trailSize]);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.SplittableRandom;
+
+// Seeded generator of complete solution grids. The three diagonal boxes share no row, column
+// or box, so each gets an independent random permutation of 1-9; the solver completes the
+// grid, and a random validity-preserving transform (digit relabeling, row and column
+// permutations within bands and stacks, band and stack permutations, transposition) spreads
+// the result over the whole space of grids. The same seed always gives the same grid.
+//
+// The methods keep no shared mutable state beyond a per-thread solver, so they are safe to
+// call from many threads at once.
+public final class GridGenerator {
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final ThreadLocal<BitmaskSolver> SOLVERS = ThreadLocal.withInitial(BitmaskSolver::new);
+
+    private GridGenerator() {
+    }
+
+    public static SudokuBoard generate(long seed) {
+        SudokuBoard grid = new SudokuBoard();
+        generate(new SplittableRandom(seed), grid);
+        return grid;
+    }
+
+    // Fills the board with a random complete grid drawn from the given random source
+    public static void generate(SplittableRandom random, SudokuBoard grid) {
+        grid.clear();
+        int[] digits = new int[SIZE];
+        for (int box = 0; box < SIZE; box += 4) { // Boxes 0, 4 and 8
+            permutation(random, digits);
+            int top = (box / 3) * 3;
+            int left = (box % 3) * 3;
+            for (int i = 0; i < SIZE; i++) {
+                grid.place((top + i / 3) * SIZE + left + i % 3, digits[i] + 1);
+            }
+        }
+        SOLVERS.get().solve(grid);
+        transform(random, grid);
+    }
+
+    // Applies one random symmetry of the Sudoku rules to a complete grid
+    static void transform(SplittableRandom random, SudokuBoard grid) {
+        int[] rows = linePermutation(random);
+        int[] cols = linePermutation(random);
+        int[] relabel = new int[SIZE];
+        permutation(random, relabel);
+        boolean transpose = random.nextBoolean();
+
+        byte[] source = new byte[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            source[cell] = (byte) grid.get(cell);
+        }
+        grid.clear();
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int from = transpose ? cols[col] * SIZE + rows[row] : rows[row] * SIZE + cols[col];
+                int digit = source[from];
+                if (digit != 0) {
+                    grid.place(row * SIZE + col, relabel[digit - 1] + 1);
+                }
+            }
+        }
+    }
+
+    // Row (or column) order that shuffles the three bands and the three lines inside each band
+    private static int[] linePermutation(SplittableRandom random) {
+        int[] bands = new int[3];
+        permutation(random, bands);
+        int[] lines = new int[SIZE];
+        int[] inner = new int[3];
+        for (int band = 0; band < 3; band++) {
+            permutation(random, inner);
+            for (int i = 0; i < 3; i++) {
+                lines[band * 3 + i] = bands[band] * 3 + inner[i];
+            }
+        }
+        return lines;
+    }
+
+    // Fills the array with a uniformly random permutation of 0..length-1 (Fisher-Yates)
+    private static void permutation(SplittableRandom random, int[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+import java.util.Arrays;
+
+// Answers "what can I do next?" for a board a player is working on, one step at a time,
+// instead of solving the whole thing. Pencil marks are kept from one hint to the next and
+// follow the player's edits: entering a digit strikes it from the 20 peers, and only erasing
+// or overwriting one rebuilds them (81 cells, still microseconds). Eliminations found by
+// earlier hints are kept until something is erased, since they may have leaned on it.
+//
+// next() looks for the cheapest technique that makes progress, in LogicSolver's order, and
+// returns it with the cells that justify it. A placement hint stays cached until the board
+// changes. An elimination hint is applied to the pencil marks as it is given, so asking again
+// moves on. When nothing applies, the hint falls back to the solution if one was loaded.
+//
+// Not thread-safe; use one instance per board.
+public class HintEngine {
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final int[] NO_CELLS = new int[0];
+
+    private final int[] values = new int[CELLS];
+    private final int[] candidates = new int[CELLS]; // pencil marks, 0 for filled cells
+    private final int[] eliminated = new int[CELLS]; // digits struck by earlier elimination hints
+    private final ConflictTracker conflicts = new ConflictTracker();
+    private SudokuBoard solution; // may be null
+    private Hint cached; // placement hint still valid for the current board
+    private boolean contradiction;
+
+    private final EliminationFinder finder = new EliminationFinder();
+    // Scratch space for the singles
+    private final int[] found = new int[CELLS];
+    private final int[] used = new int[3 * SIZE];
+
+    // Starts over on a board (givens and entries alike); the solution, if known, backs up the
+    // techniques when none of them applies
+    public void load(SudokuBoard board, SudokuBoard solution) {
+        this.solution = solution;
+        conflicts.clear();
+        for (int cell = 0; cell < CELLS; cell++) {
+            values[cell] = board.get(cell);
+            conflicts.set(cell, values[cell]);
+        }
+        Arrays.fill(eliminated, 0);
+        rebuild();
+    }
+
+    // The solution arrived later, or is no longer valid (null)
+    public void setSolution(SudokuBoard solution) {
+        this.solution = solution;
+        cached = null;
+    }
+
+    // The player changed a cell (0 clears it)
+    public void set(int cell, int digit) {
+        int old = values[cell];
+        if (old == digit) {
+            return;
+        }
+        values[cell] = digit;
+        conflicts.set(cell, digit);
+        cached = null;
+        if (old != 0) {
+            Arrays.fill(eliminated, 0);
+            rebuild();
+            return;
+        }
+        int bit = 1 << (digit - 1);
+        if ((candidates[cell] & bit) == 0) {
+            contradiction = true; // Clashes with a peer or with an earlier deduction
+        }
+        candidates[cell] = 0;
+        for (int peer : ConflictTracker.PEERS[cell]) {
+            candidates[peer] &= ~bit;
+        }
+    }
+
+    public int get(int cell) {
+        return values[cell];
+    }
+
+    // The pencil marks of an empty cell as a 9-bit mask, with earlier eliminations applied
+    public int candidates(int cell) {
+        return candidates[cell];
+    }
+
+    // True if the entries break the rules or leave some cell or digit with nowhere to go; no
+    // hint is given then. Only found out by next().
+    public boolean isContradiction() {
+        return contradiction;
+    }
+
+    // The cheapest next step; null if the board is full, contradictory or beyond the
+    // techniques with no solution loaded
+    public Hint next() {
+        if (cached != null) {
+            return cached;
+        }
+        if (contradiction || conflicts.hasConflicts()) {
+            contradiction = true;
+            return null;
+        }
+        Hint hint = nakedSingle();
+        if (hint == null && !contradiction) {
+            hint = hiddenSingle();
+        }
+        if (hint == null && !contradiction) {
+            hint = harderStep();
+        }
+        if (contradiction) {
+            return null;
+        }
+        if (hint == null) {
+            hint = fromSolution();
+        }
+        if (hint != null && hint.isPlacement()) {
+            cached = hint;
+        }
+        return hint;
+    }
+
+    // Pointing onwards, cheapest first
+    private Hint harderStep() {
+        if (!finder.find(candidates)) {
+            return null;
+        }
+        return eliminate(finder.getTechnique(), finder.getRemoved(), finder.copyTargets(), finder.copyReasons(),
+                finder.describe());
+    }
+
+    private void rebuild() {
+        contradiction = false;
+        cached = null;
+        Arrays.fill(used, 0);
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (values[cell] != 0) {
+                int bit = 1 << (values[cell] - 1);
+                used[SudokuBoard.ROW_OF[cell]] |= bit;
+                used[SIZE + SudokuBoard.COL_OF[cell]] |= bit;
+                used[2 * SIZE + SudokuBoard.BOX_OF[cell]] |= bit;
+            }
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            candidates[cell] = values[cell] != 0 ? 0 : SudokuBoard.ALL_DIGITS & ~eliminated[cell]
+                    & ~(used[SudokuBoard.ROW_OF[cell]] | used[SIZE + SudokuBoard.COL_OF[cell]]
+                    | used[2 * SIZE + SudokuBoard.BOX_OF[cell]]);
+        }
+    }
+
+    // A cell with one pencil mark left; justified by a peer holding each of the other digits
+    private Hint nakedSingle() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int mask = candidates[cell];
+            if (values[cell] != 0 || Integer.bitCount(mask) > 1) {
+                continue;
+            }
+            if (mask == 0) {
+                contradiction = true;
+                return null;
+            }
+            int digit = Integer.numberOfTrailingZeros(mask) + 1;
+            int count = 0;
+            int seen = mask;
+            for (int peer : ConflictTracker.PEERS[cell]) {
+                int bit = values[peer] == 0 ? 0 : 1 << (values[peer] - 1);
+                if ((seen & bit) == 0 && bit != 0) {
+                    seen |= bit;
+                    found[count++] = peer;
+                }
+            }
+            return new Hint(LogicSolver.Technique.NAKED_SINGLE, cell, digit, 0, NO_CELLS,
+                    Arrays.copyOf(found, count), LogicSolver.cellName(cell) + " can only be " + digit);
+        }
+        return null;
+    }
+
+    // The only place for a digit in a unit; justified by the unit's other empty cells
+    private Hint hiddenSingle() {
+        for (int unit = 0; unit < 3 * SIZE; unit++) {
+            int[] cells = SudokuBoard.UNITS[unit];
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int cell : cells) {
+                twice |= once & candidates[cell];
+                once |= candidates[cell];
+                placed |= values[cell] == 0 ? 0 : 1 << (values[cell] - 1);
+            }
+            if ((once | placed) != SudokuBoard.ALL_DIGITS) {
+                contradiction = true; // Some digit has nowhere to go
+                return null;
+            }
+            int hidden = once & ~twice;
+            if (hidden == 0) {
+                continue;
+            }
+            int bit = hidden & -hidden;
+            int digit = Integer.numberOfTrailingZeros(bit) + 1;
+            int target = -1;
+            int count = 0;
+            for (int cell : cells) {
+                if ((candidates[cell] & bit) != 0) {
+                    target = cell;
+                } else if (values[cell] == 0) {
+                    found[count++] = cell;
+                }
+            }
+            return new Hint(LogicSolver.Technique.HIDDEN_SINGLE, target, digit, 0, NO_CELLS,
+                    Arrays.copyOf(found, count), LogicSolver.cellName(target) + " is the only place for " + digit
+                    + " in " + LogicSolver.unitName(unit));
+        }
+        return null;
+    }
+
+    // Beyond the techniques: the solution's digit for the empty cell with fewest pencil marks
+    private Hint fromSolution() {
+        if (solution == null) {
+            return null;
+        }
+        int best = -1;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (values[cell] == 0 && (best < 0 || Integer.bitCount(candidates[cell]) < Integer.bitCount(candidates[best]))) {
+                best = cell;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        return new Hint(LogicSolver.Technique.GUESS, best, solution.get(best), 0, NO_CELLS, NO_CELLS,
+                LogicSolver.cellName(best) + " is " + solution.get(best) + " (no simple step left)");
+    }
+
+    // Applies an elimination to the pencil marks and describes it
+    private Hint eliminate(LogicSolver.Technique technique, int bits, int[] targets, int[] reasons, String what) {
+        for (int cell : targets) {
+            candidates[cell] &= ~bits;
+            eliminated[cell] |= bits;
+        }
+        return new Hint(technique, -1, 0, bits, targets, reasons, what + ": remove "
+                + LogicSolver.digitNames(bits) + " from " + cellNames(targets));
+    }
+
+    private static String cellNames(int[] cells) {
+        StringBuilder sb = new StringBuilder();
+        for (int cell : cells) {
+            sb.append(sb.length() > 0 ? ", " : "").append(LogicSolver.cellName(cell));
+        }
+        return sb.toString();
+    }
+
+    // One step: either a digit for a cell, or pencil marks struck from some cells
+    public static final class Hint {
+        private final LogicSolver.Technique technique;
+        private final int cell;
+        private final int digit;
+        private final int removed;
+        private final int[] targets;
+        private final int[] reasons;
+        private final String description;
+
+        Hint(LogicSolver.Technique technique, int cell, int digit, int removed, int[] targets, int[] reasons,
+             String description) {
+            this.technique = technique;
+            this.cell = cell;
+            this.digit = digit;
+            this.removed = removed;
+            this.targets = targets;
+            this.reasons = reasons;
+            this.description = description;
+        }
+
+        public LogicSolver.Technique getTechnique() {
+            return technique;
+        }
+
+        public boolean isPlacement() {
+            return cell >= 0;
+        }
+
+        // The cell to fill, -1 for an elimination
+        public int getCell() {
+            return cell;
+        }
+
+        // The digit that goes in the cell, 0 for an elimination
+        public int getDigit() {
+            return digit;
+        }
+
+        // Digits struck from the target cells, as a 9-bit mask; 0 for a placement
+        public int getRemovedDigits() {
+            return removed;
+        }
+
+        // Cells losing pencil marks; empty for a placement
+        public int[] getTargets() {
+            return targets.clone();
+        }
+
+        // The cells that make the step work, to highlight alongside it
+        public int[] getReasons() {
+            return reasons.clone();
+        }
+
+        @Override
+        public String toString() {
+            return technique + ": " + description;
+        }
+    }
+}
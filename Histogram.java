@@ -0,0 +1,147 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Log-linear histogram of non-negative longs in the style of HdrHistogram: values below 128 get
+// a bucket each, and every power of two above that is split into 64 equal buckets, so any
+// recorded value is reported within 1/64 (about 1.6%) of its true size across the whole long
+// range, in a fixed 3,712-slot table. Recording is one index computation and one atomic add.
+//
+// Like LongAdder, the table is striped: each thread records into one of up to STRIPES copies,
+// picked by a hash of the thread, so solver threads do not fight over the same cache lines.
+// A stripe is only allocated once a thread hashing to it records. Reads sum the stripes slot
+// by slot and take no locks; a read that races with recording sees each slot at some recent
+// count.
+public final class Histogram {
+    private static final int SUB_BITS = 7;
+    private static final int LINEAR = 1 << SUB_BITS; // values 0..127 are exact
+    private static final int HALF = LINEAR >>> 1; // buckets per power of two above that
+    private static final int SLOTS = LINEAR + (63 - SUB_BITS) * HALF;
+    static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // Negative values count as 0
+    public void record(long value) {
+        long v = Math.max(0, value);
+        stripe().incrementAndGet(index(v));
+        max.accumulate(v);
+    }
+
+    // This thread's stripe, allocated on first use
+    private AtomicLongArray stripe() {
+        long id = Thread.currentThread().getId();
+        int i = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+        AtomicLongArray stripe = stripes.get(i);
+        if (stripe == null) {
+            stripes.compareAndSet(i, null, new AtomicLongArray(SLOTS));
+            stripe = stripes.get(i);
+        }
+        return stripe;
+    }
+
+    // Count of one slot over all stripes
+    private long count(int slot) {
+        long count = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe != null) {
+                count += stripe.get(slot);
+            }
+        }
+        return count;
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            total += count(i);
+        }
+        return total;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    // Mean of the bucket midpoints; 0 when empty
+    public double getMean() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            long count = count(i);
+            if (count != 0) {
+                total += count;
+                sum += count * (double) midpoint(i);
+            }
+        }
+        return total == 0 ? 0 : sum / total;
+    }
+
+    // Smallest recorded value (to bucket precision) that percentile percent of the values are
+    // at or below; 0 when empty
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[SLOTS];
+        long total = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            snapshot[i] = count(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highest(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < STRIPES; i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            for (int slot = 0; stripe != null && slot < SLOTS; slot++) {
+                stripe.set(slot, 0);
+            }
+        }
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " p50=" + getValueAtPercentile(50) + " p90=" + getValueAtPercentile(90)
+                + " p99=" + getValueAtPercentile(99) + " p99.9=" + getValueAtPercentile(99.9) + " max=" + getMax();
+    }
+
+    static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1); // leaves 7 significant bits
+        return LINEAR + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    // Lowest value that lands in the slot
+    static long lowest(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int shift = (index - LINEAR) / HALF + 1;
+        return (long) (HALF + (index - LINEAR) % HALF) << shift;
+    }
+
+    // Highest value that lands in the slot
+    static long highest(int index) {
+        return index == SLOTS - 1 ? Long.MAX_VALUE : lowest(index + 1) - 1;
+    }
+
+    private static long midpoint(int index) {
+        long low = lowest(index);
+        return low + (highest(index) - low) / 2;
+    }
+}
@@ -0,0 +1,366 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Solves the way a person would: keeps pencil marks for every empty cell and applies the
+// cheapest deduction that makes progress, starting over from the cheapest after every step,
+// until the grid is full or no technique applies. Only then does it fall back to search.
+// The hardest technique the puzzle needed gives its difficulty, which says far more than the
+// clue count does. Counting which techniques fired is always on; a readable step-by-step trace
+// is kept only when asked for, so rating a generated batch stays a matter of microseconds.
+//
+// Not thread-safe; use one instance per thread.
+public class LogicSolver implements SudokuSolver {
+    private static final int SIZE = SudokuBoard.SIZE;
+    private static final int CELLS = SudokuBoard.CELLS;
+
+    public enum Difficulty { EASY, MEDIUM, HARD, EXPERT }
+
+    // In the order they are tried, cheapest first
+    public enum Technique {
+        NAKED_SINGLE("Naked single", Difficulty.EASY),
+        HIDDEN_SINGLE("Hidden single", Difficulty.EASY),
+        POINTING("Pointing", Difficulty.MEDIUM),
+        CLAIMING("Claiming", Difficulty.MEDIUM),
+        NAKED_PAIR("Naked pair", Difficulty.MEDIUM),
+        HIDDEN_PAIR("Hidden pair", Difficulty.MEDIUM),
+        NAKED_TRIPLE("Naked triple", Difficulty.HARD),
+        HIDDEN_TRIPLE("Hidden triple", Difficulty.HARD),
+        X_WING("X-Wing", Difficulty.HARD),
+        XY_WING("XY-Wing", Difficulty.HARD),
+        SWORDFISH("Swordfish", Difficulty.HARD),
+        GUESS("Trial and error", Difficulty.EXPERT);
+
+        private final String label;
+        private final Difficulty difficulty;
+
+        Technique(String label, Difficulty difficulty) {
+            this.label = label;
+            this.difficulty = difficulty;
+        }
+
+        public Difficulty getDifficulty() {
+            return difficulty;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final boolean trace;
+    private final BitmaskSolver fallback = new BitmaskSolver();
+
+    private final int[] values = new int[CELLS];
+    private final int[] candidates = new int[CELLS]; // pencil marks, 0 for filled cells
+    private int empty;
+    private boolean contradiction;
+    private int[] uses;
+    private List<String> steps;
+    private int[] eliminated; // candidates removed per technique, kept only for SolverMetrics
+    private int pending; // removed since the last record()
+
+    private final EliminationFinder finder = new EliminationFinder();
+
+    public LogicSolver() {
+        this(false);
+    }
+
+    // With trace set, every result carries a description of each step taken
+    public LogicSolver(boolean trace) {
+        this.trace = trace;
+    }
+
+    // Works the puzzle through without changing it
+    public Result analyze(SudokuBoard puzzle) {
+        uses = new int[Technique.values().length];
+        steps = trace ? new ArrayList<>() : Collections.emptyList();
+        if (SolverMetrics.ENABLED) {
+            eliminated = new int[uses.length];
+            pending = 0;
+        }
+        contradiction = !puzzle.isConsistent();
+        empty = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            values[cell] = puzzle.get(cell);
+            candidates[cell] = values[cell] == 0 ? puzzle.candidates(cell) : 0;
+            empty += values[cell] == 0 ? 1 : 0;
+        }
+
+        while (empty > 0 && !contradiction && step()) {
+            // Each step restarts from the cheapest technique
+        }
+
+        SudokuBoard solution = new SudokuBoard();
+        if (!contradiction) {
+            for (int cell = 0; cell < CELLS; cell++) {
+                if (values[cell] != 0) {
+                    solution.place(cell, values[cell]);
+                }
+            }
+        }
+        boolean solved = !contradiction && empty == 0;
+        if (!contradiction && empty > 0) {
+            record(Technique.GUESS);
+            if (trace) {
+                note(Technique.GUESS, "no technique applies with " + empty + " cells left");
+            }
+            solved = fallback.solve(solution);
+        }
+        if (SolverMetrics.ENABLED) {
+            SolverMetrics.shared().recordEliminations(eliminated);
+        }
+        return new Result(solved ? solution : null, uses, steps);
+    }
+
+    @Override
+    public boolean solve(SudokuBoard board) {
+        Result result = analyze(board);
+        if (!result.isSolved()) {
+            return false;
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (board.isEmpty(cell)) {
+                board.place(cell, result.getSolution().get(cell));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(SudokuBoard board, int limit) {
+        return fallback.countSolutions(board, limit);
+    }
+
+    // Applies the cheapest technique that makes progress; false if none does
+    private boolean step() {
+        return nakedSingles() || hiddenSingles() || eliminations();
+    }
+
+    private boolean nakedSingles() {
+        boolean progress = false;
+        for (int cell = 0; cell < CELLS && !contradiction; cell++) {
+            int mask = candidates[cell];
+            if (values[cell] == 0 && Integer.bitCount(mask) <= 1) {
+                if (mask == 0) {
+                    contradiction = true;
+                    break;
+                }
+                place(cell, Integer.numberOfTrailingZeros(mask) + 1);
+                record(Technique.NAKED_SINGLE);
+                if (trace) {
+                    note(Technique.NAKED_SINGLE, cellName(cell) + " = " + values[cell]);
+                }
+                progress = true;
+            }
+        }
+        return progress;
+    }
+
+    private boolean hiddenSingles() {
+        boolean progress = false;
+        for (int unit = 0; unit < 3 * SIZE && !contradiction; unit++) {
+            int[] cells = SudokuBoard.UNITS[unit];
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int cell : cells) {
+                twice |= once & candidates[cell];
+                once |= candidates[cell];
+                placed |= values[cell] == 0 ? 0 : 1 << (values[cell] - 1);
+            }
+            if ((once | placed) != SudokuBoard.ALL_DIGITS) {
+                contradiction = true; // Some digit has nowhere to go
+                break;
+            }
+            int hidden = once & ~twice;
+            while (hidden != 0 && !contradiction) {
+                int bit = hidden & -hidden;
+                hidden &= hidden - 1;
+                for (int cell : cells) {
+                    if ((candidates[cell] & bit) != 0) {
+                        if (Integer.bitCount(candidates[cell]) > 1) {
+                            place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                            record(Technique.HIDDEN_SINGLE);
+                            if (trace) {
+                                note(Technique.HIDDEN_SINGLE, cellName(cell) + " = " + values[cell] + " in " + unitName(unit));
+                            }
+                            progress = true;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    // Applies the cheapest elimination EliminationFinder finds, from pointing up to Swordfish
+    private boolean eliminations() {
+        if (!finder.find(candidates)) {
+            return false;
+        }
+        int removed = 0;
+        for (int i = 0; i < finder.getTargetCount(); i++) {
+            removed += eliminate(finder.getTarget(i), finder.getRemoved());
+        }
+        Technique technique = finder.getTechnique();
+        record(technique);
+        if (trace) {
+            note(technique, finder.describe() + ", removing " + digitNames(finder.getRemoved()) + " from " + removed
+                    + (removed == 1 ? " cell" : " cells"));
+        }
+        return true;
+    }
+
+    private void place(int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        if ((candidates[cell] & bit) == 0) {
+            contradiction = true;
+            return;
+        }
+        if (SolverMetrics.ENABLED) {
+            pending += Integer.bitCount(candidates[cell]) - 1;
+            for (int peer : ConflictTracker.PEERS[cell]) {
+                pending += (candidates[peer] & bit) != 0 ? 1 : 0;
+            }
+        }
+        values[cell] = digit;
+        candidates[cell] = 0;
+        empty--;
+        for (int peer : ConflictTracker.PEERS[cell]) {
+            candidates[peer] &= ~bit;
+        }
+    }
+
+    // Clears the digits from the cell's pencil marks; returns 1 if any were there
+    private int eliminate(int cell, int bits) {
+        if ((candidates[cell] & bits) == 0) {
+            return 0;
+        }
+        if (SolverMetrics.ENABLED) {
+            pending += Integer.bitCount(candidates[cell] & bits);
+        }
+        candidates[cell] &= ~bits;
+        return 1;
+    }
+
+    private void record(Technique technique) {
+        uses[technique.ordinal()]++;
+        if (SolverMetrics.ENABLED) {
+            eliminated[technique.ordinal()] += pending;
+            pending = 0;
+        }
+    }
+
+    // Adds a step to the trace; callers build the description only when tracing
+    private void note(Technique technique, String description) {
+        steps.add(technique + ": " + description);
+    }
+
+    static boolean sees(int a, int b) {
+        return SudokuBoard.ROW_OF[a] == SudokuBoard.ROW_OF[b] || SudokuBoard.COL_OF[a] == SudokuBoard.COL_OF[b]
+                || SudokuBoard.BOX_OF[a] == SudokuBoard.BOX_OF[b];
+    }
+
+    static boolean inUnit(int cell, int unit) {
+        int index = unit % SIZE;
+        switch (unit / SIZE) {
+            case 0:
+                return SudokuBoard.ROW_OF[cell] == index;
+            case 1:
+                return SudokuBoard.COL_OF[cell] == index;
+            default:
+                return SudokuBoard.BOX_OF[cell] == index;
+        }
+    }
+
+    static String cellName(int cell) {
+        return "r" + (SudokuBoard.ROW_OF[cell] + 1) + "c" + (SudokuBoard.COL_OF[cell] + 1);
+    }
+
+    static String unitName(int unit) {
+        String[] kinds = {"row ", "column ", "box "};
+        return kinds[unit / SIZE] + (unit % SIZE + 1);
+    }
+
+    static String digitNames(int digits) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int mask = digits; mask != 0; mask &= mask - 1) {
+            sb.append(sb.length() > 1 ? "," : "").append(Integer.numberOfTrailingZeros(mask) + 1);
+        }
+        return sb.append('}').toString();
+    }
+
+    static String lineNumbers(int lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int mask = lines; mask != 0; mask &= mask - 1) {
+            sb.append(sb.length() > 0 ? "," : "").append(Integer.numberOfTrailingZeros(mask) + 1);
+        }
+        return sb.toString();
+    }
+
+    // What it took to solve one puzzle
+    public static final class Result {
+        private final SudokuBoard solution;
+        private final int[] uses;
+        private final List<String> steps;
+
+        Result(SudokuBoard solution, int[] uses, List<String> steps) {
+            this.solution = solution;
+            this.uses = uses;
+            this.steps = steps;
+        }
+
+        public boolean isSolved() {
+            return solution != null;
+        }
+
+        // The solved board, or null if the puzzle has no solution
+        public SudokuBoard getSolution() {
+            return solution;
+        }
+
+        // How many times the technique made progress
+        public int getUses(Technique technique) {
+            return uses[technique.ordinal()];
+        }
+
+        // The costliest technique that was needed, null if the puzzle was already full
+        public Technique getHardest() {
+            Technique[] techniques = Technique.values();
+            for (int i = techniques.length - 1; i >= 0; i--) {
+                if (uses[i] > 0) {
+                    return techniques[i];
+                }
+            }
+            return null;
+        }
+
+        // Rating of the puzzle: the difficulty of the hardest technique it needed
+        public Difficulty getDifficulty() {
+            Technique hardest = getHardest();
+            return hardest == null ? Difficulty.EASY : hardest.getDifficulty();
+        }
+
+        // One line per step; empty unless the solver was created with tracing on
+        public List<String> getSteps() {
+            return steps;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(getDifficulty().toString());
+            String separator = " [";
+            Technique[] techniques = Technique.values();
+            for (int i = 0; i < techniques.length; i++) {
+                if (uses[i] > 0) {
+                    sb.append(separator).append(techniques[i]).append(" x").append(uses[i]);
+                    separator = ", ";
+                }
+            }
+            return sb.append(getHardest() == null ? "" : "]").toString();
+        }
+    }
+}
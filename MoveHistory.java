@@ -0,0 +1,250 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Everything a player did to one board, small enough to keep thousands of finished games in
+// memory for replay and export. Each move is one short in an append-only log (cell, digit
+// before, digit after), and every SNAPSHOT_INTERVAL moves the whole board is kept as 41 bytes,
+// four bits a cell, the same packing PuzzleArchive uses. A typical game of a few hundred
+// moves takes well under a kilobyte.
+//
+// Undo and redo step a cursor along the log and are O(1). Jumping to any move starts from the
+// nearest snapshot (or from where the cursor already is) and replays at most
+// SNAPSHOT_INTERVAL moves. Making a move after undoing drops the moves that were undone, as in
+// any editor; everything before the cursor is never rewritten.
+//
+// Not thread-safe.
+public class MoveHistory {
+    static final int SNAPSHOT_INTERVAL = 32;
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final int PACKED_BYTES = (CELLS + 1) / 2;
+
+    private final byte[] start; // the board the history begins from, packed
+    private final byte[] cells = new byte[CELLS]; // the board at the cursor
+    private short[] moves;
+    private int size; // moves in the log
+    private int cursor; // moves applied; undo goes back from here
+    private byte[] snapshots; // board after every SNAPSHOT_INTERVAL moves, packed, from move 0
+
+    public MoveHistory(SudokuBoard board) {
+        this(pack(board), 16);
+    }
+
+    private MoveHistory(byte[] start, int capacity) {
+        this.start = start;
+        this.moves = new short[capacity];
+        this.snapshots = new byte[PACKED_BYTES * 2];
+        unpack(start, 0, cells);
+        System.arraycopy(start, 0, snapshots, 0, PACKED_BYTES);
+    }
+
+    // The digit in a cell at the cursor, 0 for empty
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    // Copies the board at the cursor
+    public void copyTo(SudokuBoard board) {
+        load(cells, board);
+    }
+
+    // Records a change to a cell (0 clears it); false if the cell already holds the digit
+    public boolean set(int cell, int digit) {
+        int old = cells[cell];
+        if (old == digit) {
+            return false;
+        }
+        if (cursor < size) {
+            size = cursor; // A new move drops the undone ones
+        }
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(1, moves.length * 2)); // trimToSize() may leave none
+        }
+        moves[size++] = (short) (cell << 8 | old << 4 | digit);
+        cells[cell] = (byte) digit;
+        cursor = size;
+        if (cursor % SNAPSHOT_INTERVAL == 0) {
+            int offset = cursor / SNAPSHOT_INTERVAL * PACKED_BYTES;
+            if (offset + PACKED_BYTES > snapshots.length) {
+                snapshots = Arrays.copyOf(snapshots, snapshots.length * 2);
+            }
+            pack(cells, snapshots, offset);
+        }
+        return true;
+    }
+
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    public boolean canRedo() {
+        return cursor < size;
+    }
+
+    // Takes back the last move; returns the cell it changed, or -1 if there is nothing to undo
+    public int undo() {
+        if (cursor == 0) {
+            return -1;
+        }
+        int move = moves[--cursor];
+        cells[move >>> 8] = (byte) ((move >>> 4) & 0xF);
+        return move >>> 8;
+    }
+
+    // Makes the next undone move again; returns its cell, or -1 if there is nothing to redo
+    public int redo() {
+        if (cursor == size) {
+            return -1;
+        }
+        int move = moves[cursor++];
+        cells[move >>> 8] = (byte) (move & 0xF);
+        return move >>> 8;
+    }
+
+    // Moves the cursor to just after the given number of moves (0 is the starting board)
+    public void jumpTo(int position) {
+        if (position < 0 || position > size) {
+            throw new IllegalArgumentException("Move " + position + " is outside 0.." + size);
+        }
+        int snapshot = position / SNAPSHOT_INTERVAL * SNAPSHOT_INTERVAL;
+        if (Math.abs(position - cursor) > position - snapshot) {
+            unpack(snapshots, position / SNAPSHOT_INTERVAL * PACKED_BYTES, cells);
+            cursor = snapshot;
+        }
+        while (cursor < position) {
+            redo();
+        }
+        while (cursor > position) {
+            undo();
+        }
+    }
+
+    // The board after the given number of moves, leaving the cursor alone
+    public void boardAt(int position, SudokuBoard board) {
+        if (position < 0 || position > size) {
+            throw new IllegalArgumentException("Move " + position + " is outside 0.." + size);
+        }
+        byte[] scratch = new byte[CELLS];
+        unpack(snapshots, position / SNAPSHOT_INTERVAL * PACKED_BYTES, scratch);
+        for (int i = position / SNAPSHOT_INTERVAL * SNAPSHOT_INTERVAL; i < position; i++) {
+            scratch[moves[i] >>> 8] = (byte) (moves[i] & 0xF);
+        }
+        load(scratch, board);
+    }
+
+    // Moves in the log, undone ones included
+    public int size() {
+        return size;
+    }
+
+    // Moves currently applied
+    public int position() {
+        return cursor;
+    }
+
+    // The cell, digit before and digit after of a move in the log
+    public int getCell(int move) {
+        return moves[check(move)] >>> 8;
+    }
+
+    public int getPrevious(int move) {
+        return (moves[check(move)] >>> 4) & 0xF;
+    }
+
+    public int getDigit(int move) {
+        return moves[check(move)] & 0xF;
+    }
+
+    // Forgets the undone moves and gives back spare capacity, for a game that is over
+    public void trimToSize() {
+        size = cursor;
+        moves = Arrays.copyOf(moves, size);
+        snapshots = Arrays.copyOf(snapshots, (size / SNAPSHOT_INTERVAL + 1) * PACKED_BYTES);
+    }
+
+    // Starting board, move count and moves; snapshots are rebuilt on reading
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(PACKED_BYTES + 4 + 2 * size);
+        buffer.put(start).putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putShort(moves[i]);
+        }
+        return buffer.array();
+    }
+
+    // Reads what toBytes() wrote, with the cursor after the last move
+    public static MoveHistory fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < PACKED_BYTES + 4) {
+            throw new IllegalArgumentException("History too short: " + bytes.length + " bytes");
+        }
+        byte[] start = new byte[PACKED_BYTES];
+        buffer.get(start);
+        for (int cell = 0; cell < CELLS + 1; cell++) { // The last one is the pad nibble, always 0
+            int digit = (cell & 1) == 0 ? (start[cell / 2] >>> 4) & 0xF : start[cell / 2] & 0xF;
+            if (digit > (cell < CELLS ? SudokuBoard.SIZE : 0)) {
+                throw new IllegalArgumentException("Bad starting board: " + digit + (cell < CELLS
+                        ? " in cell " + cell : " in the padding"));
+            }
+        }
+        int count = buffer.getInt();
+        if (count < 0 || buffer.remaining() != 2 * count) {
+            throw new IllegalArgumentException("History holds " + buffer.remaining() + " bytes of moves, expected "
+                    + 2L * count);
+        }
+        MoveHistory history = new MoveHistory(start, Math.max(count, 1));
+        for (int i = 0; i < count; i++) {
+            int move = buffer.getShort();
+            int cell = move >>> 8;
+            int digit = move & 0xF;
+            if (cell >= CELLS || digit > SudokuBoard.SIZE || ((move >>> 4) & 0xF) != history.cells[cell]) {
+                throw new IllegalArgumentException("Bad move " + i + ": 0x" + Integer.toHexString(move & 0xFFFF));
+            }
+            history.set(cell, digit);
+        }
+        return history;
+    }
+
+    private int check(int move) {
+        if (move < 0 || move >= size) {
+            throw new IllegalArgumentException("Move " + move + " is outside 0.." + (size - 1));
+        }
+        return move;
+    }
+
+    private static byte[] pack(SudokuBoard board) {
+        byte[] digits = new byte[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            digits[cell] = (byte) board.get(cell);
+        }
+        byte[] packed = new byte[PACKED_BYTES];
+        pack(digits, packed, 0);
+        return packed;
+    }
+
+    private static void pack(byte[] digits, byte[] out, int offset) {
+        for (int cell = 0; cell < CELLS; cell += 2) {
+            int low = cell + 1 < CELLS ? digits[cell + 1] : 0;
+            out[offset + cell / 2] = (byte) (digits[cell] << 4 | low);
+        }
+    }
+
+    private static void unpack(byte[] in, int offset, byte[] digits) {
+        for (int cell = 0; cell < CELLS; cell += 2) {
+            int b = in[offset + cell / 2];
+            digits[cell] = (byte) ((b >>> 4) & 0xF);
+            if (cell + 1 < CELLS) {
+                digits[cell + 1] = (byte) (b & 0xF);
+            }
+        }
+    }
+
+    // The digits may clash (a player's mistakes are history too), so set() rather than place()
+    private static void load(byte[] digits, SudokuBoard board) {
+        board.clear();
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (digits[cell] != 0) {
+                board.set(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE, digits[cell]);
+            }
+        }
+    }
+}
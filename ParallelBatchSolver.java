@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Multi-core version of SudokuBatch. The calling thread reads puzzles into fixed-size chunks,
+// a work-stealing ForkJoinPool solves the chunks, and a writer thread streams the results
+// out either in input order or as soon as each chunk completes. Chunks are recycled through a
+// bounded free list, so memory is capped at a few chunks per thread, and every pool thread
+// keeps its own solver and board, so nothing is allocated per puzzle.
+public class ParallelBatchSolver {
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final int CHUNK_SIZE = 256; // puzzles per task
+    private static final int CHUNKS_PER_THREAD = 4; // in flight, bounds memory
+
+    private final int threads;
+    private final boolean ordered;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Worker> workers;
+
+    private long puzzles;
+    private long solved;
+    private long unsolvable;
+    private long invalid;
+
+    public ParallelBatchSolver(int threads, boolean ordered, Supplier<SudokuSolver> solvers) {
+        this.threads = threads;
+        this.ordered = ordered;
+        this.pool = new ForkJoinPool(threads);
+        this.workers = ThreadLocal.withInitial(() -> new Worker(solvers.get()));
+    }
+
+    // Solves every puzzle in the stream; the caller owns (and closes) both streams
+    public void run(InputStream in, OutputStream output) throws IOException {
+        int capacity = threads * CHUNKS_PER_THREAD;
+        BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Chunk> completed = new LinkedBlockingQueue<>();
+        for (int i = 0; i < capacity; i++) {
+            free.add(new Chunk());
+        }
+
+        Writer writer = new Writer(output, free, completed, capacity);
+        Thread writerThread = new Thread(writer, "sudoku-batch-writer");
+        writerThread.start();
+
+        byte[] line = new byte[4096];
+        long sequence = 0;
+        try {
+            Chunk chunk = null;
+            int length;
+            while ((length = SudokuBatch.readLine(in, line)) >= 0 && writer.failure == null) {
+                if (length == 0) {
+                    continue; // Skip blank lines
+                }
+                if (chunk == null) {
+                    chunk = free.take();
+                    chunk.reset(sequence++);
+                }
+                chunk.add(line, length);
+                if (chunk.count == CHUNK_SIZE) {
+                    submit(chunk, completed);
+                    chunk = null;
+                }
+            }
+            if (chunk != null) {
+                submit(chunk, completed);
+            }
+            completed.put(Chunk.end(sequence));
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerThread.interrupt();
+            throw new IOException("Interrupted while solving", e);
+        }
+        if (writer.failure != null) {
+            throw writer.failure;
+        }
+        output.flush();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getPuzzles() {
+        return puzzles;
+    }
+
+    public long getSolved() {
+        return solved;
+    }
+
+    public String summary(long elapsedNanos) {
+        return SudokuBatch.summary(puzzles, solved, unsolvable, invalid, elapsedNanos) + " on " + threads + " threads";
+    }
+
+    private void submit(Chunk chunk, BlockingQueue<Chunk> completed) {
+        pool.execute(() -> {
+            try {
+                workers.get().solve(chunk);
+            } catch (RuntimeException | Error e) {
+                chunk.failure = e;
+            } finally {
+                completed.add(chunk); // Always handed back, or the ordered writer would wait forever
+            }
+        });
+    }
+
+    // Per-thread solver state, reused for every chunk the thread picks up
+    private static final class Worker {
+        private final SudokuSolver solver;
+        private final SudokuBoard board = new SudokuBoard();
+
+        Worker(SudokuSolver solver) {
+            this.solver = solver;
+        }
+
+        void solve(Chunk chunk) {
+            int position = 0;
+            for (int i = 0; i < chunk.count; i++) {
+                if (!chunk.wellFormed[i] || !SudokuBatch.parse(chunk.input, i * CELLS, CELLS, board)) {
+                    chunk.invalid++;
+                    position = append(chunk, position, SudokuBatch.INVALID_INPUT);
+                } else if (solver.solve(board)) {
+                    chunk.solved++;
+                    position += SudokuBatch.format(board, chunk.output, position);
+                } else {
+                    chunk.unsolvable++;
+                    position = append(chunk, position, SudokuBatch.NO_SOLUTION);
+                }
+            }
+            chunk.outputLength = position;
+        }
+
+        private static int append(Chunk chunk, int position, byte[] message) {
+            System.arraycopy(message, 0, chunk.output, position, message.length);
+            return position + message.length;
+        }
+    }
+
+    // A slice of consecutive input lines and the result lines for them
+    private static final class Chunk {
+        final byte[] input = new byte[CHUNK_SIZE * CELLS];
+        final boolean[] wellFormed = new boolean[CHUNK_SIZE];
+        final byte[] output = new byte[CHUNK_SIZE * (CELLS + 1)];
+        long sequence;
+        int count;
+        int outputLength;
+        int solved;
+        int unsolvable;
+        int invalid;
+        Throwable failure; // what the solver threw, reported by the writer
+        boolean last; // marks the end of input; carries no puzzles
+
+        static Chunk end(long sequence) {
+            Chunk chunk = new Chunk();
+            chunk.sequence = sequence;
+            chunk.last = true;
+            return chunk;
+        }
+
+        void reset(long sequence) {
+            this.sequence = sequence;
+            count = 0;
+            outputLength = 0;
+            solved = 0;
+            unsolvable = 0;
+            invalid = 0;
+            failure = null;
+        }
+
+        // Copies one line in; anything that is not 81 characters is remembered as malformed
+        void add(byte[] line, int length) {
+            while (length > 0 && (line[length - 1] == ' ' || line[length - 1] == '\t')) {
+                length--;
+            }
+            wellFormed[count] = length == CELLS;
+            if (length == CELLS) {
+                System.arraycopy(line, 0, input, count * CELLS, CELLS);
+            }
+            count++;
+        }
+    }
+
+    // Drains completed chunks to the output and hands them back to the reader
+    private final class Writer implements Runnable {
+        private final OutputStream output;
+        private final BlockingQueue<Chunk> free;
+        private final BlockingQueue<Chunk> completed;
+        private final Chunk[] pending; // ordered mode: chunks waiting for their turn, by sequence
+        private volatile IOException failure;
+
+        Writer(OutputStream output, BlockingQueue<Chunk> free, BlockingQueue<Chunk> completed, int capacity) {
+            this.output = output;
+            this.free = free;
+            this.completed = completed;
+            this.pending = new Chunk[capacity];
+        }
+
+        @Override
+        public void run() {
+            long next = 0; // next sequence to write
+            long total = Long.MAX_VALUE; // known once the end marker arrives
+            try {
+                while (next < total) {
+                    Chunk chunk = completed.take();
+                    if (chunk.last) {
+                        total = chunk.sequence;
+                        continue;
+                    }
+                    if (!ordered) {
+                        write(chunk);
+                        next++;
+                        continue;
+                    }
+                    pending[(int) (chunk.sequence % pending.length)] = chunk;
+                    int slot;
+                    while (next < total && pending[slot = (int) (next % pending.length)] != null
+                            && pending[slot].sequence == next) {
+                        Chunk ready = pending[slot];
+                        pending[slot] = null;
+                        write(ready);
+                        next++;
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+                free.clear(); // Stops the reader from waiting for chunks that will never come back
+                for (int i = 0; i < pending.length; i++) {
+                    free.offer(new Chunk());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void write(Chunk chunk) throws IOException {
+            if (chunk.failure != null) {
+                throw new IOException("Solving puzzles " + chunk.sequence * CHUNK_SIZE + "-"
+                        + (chunk.sequence * CHUNK_SIZE + chunk.count - 1) + " failed", chunk.failure);
+            }
+            output.write(chunk.output, 0, chunk.outputLength);
+            puzzles += chunk.count;
+            solved += chunk.solved;
+            unsolvable += chunk.unsolvable;
+            invalid += chunk.invalid;
+            free.add(chunk);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Solver for the rare pathological puzzles that dominate tail latency. Every puzzle first gets
+// a sequential BitmaskSolver run capped at a node threshold; most finish well inside it. If
+// the cap is hit, the puzzle counts as hard: the top levels of the search tree are split on
+// the most-constrained cell and the subtrees are searched in parallel on a ForkJoinPool. The
+// first subtree to find a solution raises a shared flag that stops all the others.
+//
+// Like the other solvers an instance is not thread-safe, but the pool may be shared.
+public class ParallelSearchSolver implements SudokuSolver {
+    public static final long DEFAULT_THRESHOLD = 5_000; // search nodes before going parallel
+    public static final int DEFAULT_SPLIT_DEPTH = 3; // tree levels expanded into separate tasks
+
+    private final ForkJoinPool pool;
+    private final long threshold;
+    private final int splitDepth;
+    private final BitmaskSolver sequential = new BitmaskSolver();
+    private final ThreadLocal<BitmaskSolver> solvers = ThreadLocal.withInitial(BitmaskSolver::new);
+    private boolean lastSolvedInParallel;
+
+    public ParallelSearchSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD, DEFAULT_SPLIT_DEPTH);
+    }
+
+    public ParallelSearchSolver(ForkJoinPool pool, long threshold, int splitDepth) {
+        this.pool = pool;
+        this.threshold = threshold;
+        this.splitDepth = splitDepth;
+    }
+
+    @Override
+    public boolean solve(SudokuBoard board) {
+        lastSolvedInParallel = false;
+        int outcome = sequential.solveBounded(board, threshold, null);
+        if (outcome != BitmaskSolver.ABORTED) {
+            return outcome == BitmaskSolver.SOLVED;
+        }
+
+        lastSolvedInParallel = true;
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<SudokuBoard> winner = new AtomicReference<>();
+        SudokuBoard root = new SudokuBoard();
+        root.copyFrom(board);
+        pool.invoke(new Subtree(root, 0, stop, winner));
+
+        SudokuBoard solution = winner.get();
+        if (solution == null) {
+            return false;
+        }
+        for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+            if (board.isEmpty(cell)) {
+                board.place(cell, solution.get(cell));
+            }
+        }
+        return true;
+    }
+
+    // Counting has to visit the whole tree anyway, so it stays sequential
+    @Override
+    public int countSolutions(SudokuBoard board, int limit) {
+        return sequential.countSolutions(board, limit);
+    }
+
+    // True if the last solve() crossed the threshold and ran in parallel
+    public boolean wasLastSolveParallel() {
+        return lastSolvedInParallel;
+    }
+
+    // One subtree of the search: split further near the root, solved sequentially below
+    private final class Subtree extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SudokuBoard board;
+        private final int depth;
+        private final AtomicBoolean stop;
+        private final AtomicReference<SudokuBoard> winner;
+
+        Subtree(SudokuBoard board, int depth, AtomicBoolean stop, AtomicReference<SudokuBoard> winner) {
+            this.board = board;
+            this.depth = depth;
+            this.stop = stop;
+            this.winner = winner;
+        }
+
+        @Override
+        protected void compute() {
+            if (stop.get()) {
+                return;
+            }
+            BitmaskSolver solver = solvers.get();
+
+            if (depth >= splitDepth) {
+                if (solver.solveBounded(board, Long.MAX_VALUE, stop) == BitmaskSolver.SOLVED) {
+                    finish(board);
+                }
+                return;
+            }
+
+            int cell = solver.propagateAndPick(board);
+            if (cell == BitmaskSolver.DEAD_END) {
+                return;
+            }
+            if (cell == BitmaskSolver.FILLED) {
+                finish(board);
+                return;
+            }
+
+            List<Subtree> children = new ArrayList<>(SudokuBoard.SIZE);
+            int options = board.candidates(cell);
+            while (options != 0) {
+                int bit = options & -options;
+                options ^= bit;
+                SudokuBoard child = new SudokuBoard();
+                child.copyFrom(board);
+                child.place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                children.add(new Subtree(child, depth + 1, stop, winner));
+            }
+            invokeAll(children);
+        }
+
+        private void finish(SudokuBoard solution) {
+            if (winner.compareAndSet(null, solution)) {
+                stop.set(true);
+            }
+        }
+    }
+}
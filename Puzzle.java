@@ -0,0 +1,26 @@
+// A puzzle together with its solution, so callers never have to search for it again.
+// The boards are shared, not copied: treat them as read-only and copyFrom() them to edit.
+public final class Puzzle {
+    private final SudokuBoard givens;
+    private final SudokuBoard solution;
+    private final LogicSolver.Difficulty difficulty;
+
+    public Puzzle(SudokuBoard givens, SudokuBoard solution, LogicSolver.Difficulty difficulty) {
+        this.givens = givens;
+        this.solution = solution;
+        this.difficulty = difficulty;
+    }
+
+    public SudokuBoard getGivens() {
+        return givens;
+    }
+
+    public SudokuBoard getSolution() {
+        return solution;
+    }
+
+    // Rating from the hardest technique a human solver needs, see LogicSolver
+    public LogicSolver.Difficulty getDifficulty() {
+        return difficulty;
+    }
+}
@@ -0,0 +1,384 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Fixed-record binary file of puzzles, for keeping very large generated sets on disk. After a
+// 16-byte header every record has the same size: the givens as 81 four-bit digits packed two
+// to a byte (41 bytes, high nibble first, 0 for blank), then optionally the solution packed
+// the same way, then optionally one difficulty byte (LogicSolver.Difficulty ordinal, 0xFF for
+// unrated). That is 41 to 83 bytes a puzzle against 82 for a text line, and no parsing.
+//
+// Header (big-endian): magic "SDKA", version, flags (1 = solutions, 2 = difficulty), record
+// size as an unsigned short, 8 reserved bytes.
+//
+// A reader maps the file read-only in segments of under 2 GB each, so puzzle #N is one
+// division away and decodes straight out of the page cache: nothing is read ahead, copied or
+// allocated, and a sequential scan runs at memory speed once the pages are resident. A torn
+// last record (a writer that died mid-append) is ignored. Readers are safe to share between
+// threads; writers are not.
+//
+// Usage: java PuzzleArchive pack [--solutions] [--rate] input.txt archive
+//        java PuzzleArchive generate count easy|medium|hard archive
+//        java PuzzleArchive unpack archive [output.txt]
+//        java PuzzleArchive get archive index
+public final class PuzzleArchive implements Closeable {
+    static final int MAGIC = 0x53444B41; // "SDKA"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int FLAG_SOLUTIONS = 1;
+    static final int FLAG_DIFFICULTY = 2;
+    static final int PACKED_BYTES = (SudokuBoard.CELLS + 1) / 2;
+    static final int UNRATED = 0xFF;
+
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final LogicSolver.Difficulty[] DIFFICULTIES = LogicSolver.Difficulty.values();
+
+    private final FileChannel channel;
+    private final int flags;
+    private final int recordBytes;
+    private final long count;
+    private final int recordsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    private PuzzleArchive(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a puzzle archive");
+        }
+        if (header.get(4) != VERSION) {
+            throw new IOException("Unsupported archive version " + header.get(4));
+        }
+        this.flags = header.get(5);
+        this.recordBytes = header.getShort(6) & 0xFFFF;
+        if (recordBytes != recordBytes(flags)) {
+            throw new IOException("Record size " + recordBytes + " does not match flags " + flags);
+        }
+        this.count = (channel.size() - HEADER_BYTES) / recordBytes;
+        this.recordsPerSegment = Integer.MAX_VALUE / recordBytes;
+        int segmentCount = (int) ((count + recordsPerSegment - 1) / recordsPerSegment);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int s = 0; s < segmentCount; s++) {
+            long first = (long) s * recordsPerSegment;
+            long records = Math.min(recordsPerSegment, count - first);
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * recordBytes,
+                    records * recordBytes);
+        }
+    }
+
+    public static PuzzleArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new PuzzleArchive(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Starts a new archive, replacing any file at the path
+    public static Writer create(Path path, boolean solutions, boolean difficulty) throws IOException {
+        int flags = (solutions ? FLAG_SOLUTIONS : 0) | (difficulty ? FLAG_DIFFICULTY : 0);
+        return new Writer(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), flags);
+    }
+
+    static int recordBytes(int flags) {
+        return PACKED_BYTES + ((flags & FLAG_SOLUTIONS) != 0 ? PACKED_BYTES : 0) + ((flags & FLAG_DIFFICULTY) != 0 ? 1 : 0);
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public boolean hasSolutions() {
+        return (flags & FLAG_SOLUTIONS) != 0;
+    }
+
+    public boolean hasDifficulty() {
+        return (flags & FLAG_DIFFICULTY) != 0;
+    }
+
+    // One given of puzzle #index without decoding the rest; 0 for a blank
+    public int get(long index, int cell) {
+        MappedByteBuffer segment = segment(index);
+        return nibble(segment.get(offset(index) + (cell >>> 1)), cell);
+    }
+
+    // Decodes the givens of puzzle #index into the board; IllegalStateException if the record
+    // is corrupt
+    public void readGivens(long index, SudokuBoard out) {
+        unpack(segment(index), offset(index), out, index);
+    }
+
+    // Decodes the givens of puzzle #index into 81 bytes (0 for blank), skipping the board's
+    // bookkeeping; the fast path for scanning a whole archive
+    public void readGivens(long index, byte[] cells) {
+        MappedByteBuffer segment = segment(index);
+        int offset = offset(index);
+        for (int i = 0, cell = 0; i < PACKED_BYTES - 1; i++, cell += 2) {
+            int b = segment.get(offset + i);
+            cells[cell] = (byte) ((b >>> 4) & 0xF);
+            cells[cell + 1] = (byte) (b & 0xF);
+        }
+        cells[CELLS - 1] = (byte) ((segment.get(offset + PACKED_BYTES - 1) >>> 4) & 0xF);
+    }
+
+    // Decodes the solution of puzzle #index into the board; false if the archive has none,
+    // IllegalStateException if the record is corrupt
+    public boolean readSolution(long index, SudokuBoard out) {
+        if (!hasSolutions()) {
+            return false;
+        }
+        unpack(segment(index), offset(index) + PACKED_BYTES, out, index);
+        return true;
+    }
+
+    // Rating of puzzle #index, or null if the archive or the puzzle has none
+    public LogicSolver.Difficulty getDifficulty(long index) {
+        if (!hasDifficulty()) {
+            return null;
+        }
+        int value = segment(index).get(offset(index) + recordBytes - 1) & 0xFF;
+        return value < DIFFICULTIES.length ? DIFFICULTIES[value] : null;
+    }
+
+    // Puzzle #index as new boards; the solution is null if the archive has none
+    public Puzzle getPuzzle(long index) {
+        SudokuBoard givens = new SudokuBoard();
+        readGivens(index, givens);
+        SudokuBoard solution = null;
+        if (hasSolutions()) {
+            solution = new SudokuBoard();
+            readSolution(index, solution);
+        }
+        return new Puzzle(givens, solution, getDifficulty(index));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close(); // The mappings go away once they are garbage collected
+    }
+
+    private MappedByteBuffer segment(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Puzzle " + index + " of " + count);
+        }
+        return segments[(int) (index / recordsPerSegment)];
+    }
+
+    private int offset(long index) {
+        return (int) (index % recordsPerSegment) * recordBytes;
+    }
+
+    // Rejects what no writer produces (a nibble above 9, a digit repeated in a unit) rather
+    // than hand a broken board to the solvers
+    private static void unpack(ByteBuffer buffer, int offset, SudokuBoard out, long index) {
+        out.clear();
+        for (int i = 0, cell = 0; i < PACKED_BYTES; i++, cell += 2) {
+            int b = buffer.get(offset + i);
+            place(out, cell, (b >>> 4) & 0xF, index);
+            if (cell + 1 < CELLS) {
+                place(out, cell + 1, b & 0xF, index);
+            }
+        }
+    }
+
+    private static void place(SudokuBoard out, int cell, int digit, long index) {
+        if (digit == 0) {
+            return;
+        }
+        if (digit > SudokuBoard.SIZE || !out.canPlace(cell, digit)) {
+            throw new IllegalStateException("Puzzle " + index + " is corrupt: " + digit + " at "
+                    + LogicSolver.cellName(cell) + (digit > SudokuBoard.SIZE ? " is not a digit" : " repeats"));
+        }
+        out.place(cell, digit);
+    }
+
+    private static int nibble(byte b, int cell) {
+        return (cell & 1) == 0 ? (b >>> 4) & 0xF : b & 0xF;
+    }
+
+    static void pack(SudokuBoard board, ByteBuffer buffer) {
+        for (int cell = 0; cell < CELLS; cell += 2) {
+            int low = cell + 1 < CELLS ? board.get(cell + 1) : 0;
+            buffer.put((byte) (board.get(cell) << 4 | low));
+        }
+    }
+
+    // Appends records through a channel in 64 KB batches. close() flushes the last batch; until
+    // then readers see the records written so far, if any.
+    public static final class Writer implements Closeable {
+        private static final int BUFFER_BYTES = 1 << 16;
+
+        private final FileChannel channel;
+        private final int flags;
+        private final ByteBuffer buffer;
+        private long count;
+
+        private Writer(FileChannel channel, int flags) throws IOException {
+            this.channel = channel;
+            this.flags = flags;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            buffer.putInt(MAGIC).put((byte) VERSION).put((byte) flags).putShort((short) recordBytes(flags)).putLong(0);
+        }
+
+        // Appends a puzzle; the solution and difficulty are ignored unless the archive keeps
+        // them, and either may be null (a missing solution is stored as all blanks)
+        public void append(SudokuBoard givens, SudokuBoard solution, LogicSolver.Difficulty difficulty) throws IOException {
+            if (buffer.remaining() < recordBytes(flags)) {
+                flush();
+            }
+            pack(givens, buffer);
+            if ((flags & FLAG_SOLUTIONS) != 0) {
+                pack(solution != null ? solution : new SudokuBoard(), buffer);
+            }
+            if ((flags & FLAG_DIFFICULTY) != 0) {
+                buffer.put((byte) (difficulty != null ? difficulty.ordinal() : UNRATED));
+            }
+            count++;
+        }
+
+        public void append(Puzzle puzzle) throws IOException {
+            append(puzzle.getGivens(), puzzle.getSolution(), puzzle.getDifficulty());
+        }
+
+        // Records appended so far
+        public long size() {
+            return count;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java PuzzleArchive pack|generate|unpack|get ...");
+            return;
+        }
+        switch (args[0]) {
+            case "pack":
+                pack(args);
+                break;
+            case "generate":
+                generate(Integer.parseInt(args[1]), args[2], Paths.get(args[3]));
+                break;
+            case "unpack":
+                try (PuzzleArchive archive = open(Paths.get(args[1]));
+                     OutputStream out = new BufferedOutputStream(args.length > 2
+                             ? new FileOutputStream(args[2]) : System.out, 1 << 16)) {
+                    unpack(archive, out);
+                }
+                break;
+            case "get":
+                try (PuzzleArchive archive = open(Paths.get(args[1]))) {
+                    Puzzle puzzle = archive.getPuzzle(Long.parseLong(args[2]));
+                    System.out.println(puzzle.getGivens());
+                    if (puzzle.getSolution() != null) {
+                        System.out.println(puzzle.getSolution());
+                    }
+                    if (puzzle.getDifficulty() != null) {
+                        System.out.println(puzzle.getDifficulty());
+                    }
+                }
+                break;
+            default:
+                System.err.println("Unknown command " + args[0]);
+        }
+    }
+
+    // Text puzzles to an archive, solving and rating them if asked; malformed lines are skipped
+    private static void pack(String[] args) throws IOException {
+        boolean solutions = false;
+        boolean rate = false;
+        int arg = 1;
+        for (; arg < args.length && args[arg].startsWith("--"); arg++) {
+            solutions |= args[arg].equals("--solutions");
+            rate |= args[arg].equals("--rate");
+        }
+        long start = System.nanoTime();
+        long skipped = 0;
+        BitmaskSolver solver = new BitmaskSolver();
+        LogicSolver logic = new LogicSolver();
+        SudokuBoard board = new SudokuBoard();
+        SudokuBoard solution = new SudokuBoard();
+        byte[] line = new byte[4096];
+        try (InputStream in = new BufferedInputStream(new FileInputStream(args[arg]), 1 << 16);
+             Writer writer = create(Paths.get(args[arg + 1]), solutions, rate)) {
+            int length;
+            while ((length = SudokuBatch.readLine(in, line)) >= 0) {
+                if (length == 0) {
+                    continue;
+                }
+                if (!SudokuBatch.parse(line, 0, length, board)) {
+                    skipped++;
+                    continue;
+                }
+                LogicSolver.Difficulty difficulty = null;
+                if (rate) {
+                    LogicSolver.Result result = logic.analyze(board);
+                    difficulty = result.isSolved() ? result.getDifficulty() : null;
+                }
+                if (solutions) {
+                    solution.copyFrom(board);
+                    if (!solver.solve(solution)) {
+                        solution.clear();
+                    }
+                }
+                writer.append(board, solution, difficulty);
+            }
+            System.err.printf("%d puzzles packed, %d skipped in %.3f s%n", writer.size(), skipped,
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private static void generate(int count, String difficultyLevel, Path path) throws IOException {
+        LogicSolver.Difficulty[] range = SudokuGenerator.difficultyFor(difficultyLevel);
+        SudokuGenerator generator = new SudokuGenerator();
+        long start = System.nanoTime();
+        try (Writer writer = create(path, true, true)) {
+            for (int i = 0; i < count; i++) {
+                writer.append(generator.generatePuzzle(range[0], range[1]));
+            }
+        }
+        System.err.printf("%d puzzles generated in %.3f s%n", count, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void unpack(PuzzleArchive archive, OutputStream out) throws IOException {
+        SudokuBoard board = new SudokuBoard();
+        byte[] text = new byte[CELLS + 1];
+        for (long i = 0; i < archive.size(); i++) {
+            archive.readGivens(i, board);
+            out.write(text, 0, SudokuBatch.format(board, text, 0));
+        }
+    }
+}
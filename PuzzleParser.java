@@ -0,0 +1,361 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Reads puzzles straight out of bytes, with one table lookup per character and no Strings,
+// splitting or number parsing, so batch and service paths can go through millions of puzzles a
+// second. Accepted layouts, freely mixed in one input:
+//
+//   - 81 cells on one line: 530070000600195000098000060...
+//   - nine lines of nine cells, with the cells separated by whitespace or commas or not at all,
+//     optionally boxed in with '|', '-' and '+' (lines of only those count as blank)
+//
+// '1'-'9' are givens and '0' or '.' blanks. Blank lines between puzzles are ignored, '#' starts
+// a comment that runs to the end of the line, and a file may hold any number of puzzles one
+// after another. Anything else is an error reported with its line and column (both from 1) and
+// byte offset: a stray character, a line of the wrong length, a digit that repeats in a row,
+// column or box, a blank line inside a grid, or input that ends in the middle of a puzzle.
+// After an error, next() carries on from the next puzzle: past the bad line, and for a grid
+// also past its remaining rows (or up to a blank line, whichever comes first), so one bad entry
+// does not stop the rest of a file.
+//
+// Reusable and not thread-safe; use one instance per thread.
+public final class PuzzleParser {
+    public static final int END = 0;
+    public static final int PUZZLE = 1;
+    public static final int ERROR = -1;
+
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final int SIZE = SudokuBoard.SIZE;
+
+    // Character classes; '0'-'9' and '.' map to the cell value itself
+    private static final byte SEPARATOR = 10;
+    private static final byte NEWLINE = 11;
+    private static final byte COMMENT = 12;
+    private static final byte INVALID = 13;
+    private static final byte[] CLASS = new byte[256];
+
+    static {
+        java.util.Arrays.fill(CLASS, INVALID);
+        for (int digit = 0; digit <= SIZE; digit++) {
+            CLASS['0' + digit] = (byte) digit;
+        }
+        CLASS['.'] = 0;
+        for (char c : new char[] {' ', '\t', '\r', ',', '|', '-', '+'}) {
+            CLASS[c] = SEPARATOR;
+        }
+        CLASS['\n'] = NEWLINE;
+        CLASS['#'] = COMMENT;
+    }
+
+    private byte[] array; // the input when it is an array, else null
+    private ByteBuffer buffer; // the input otherwise
+    private int position;
+    private int limit;
+    private int line;
+    private int lineStart;
+
+    private String error;
+    private int errorOffset;
+    private int errorLine;
+    private int errorColumn;
+
+    // Parses the bytes offset..offset+length-1 of the array
+    public PuzzleParser reset(byte[] data, int offset, int length) {
+        this.array = data;
+        this.buffer = null;
+        return start(offset, offset + length);
+    }
+
+    // Parses the buffer from its position to its limit, without moving either
+    public PuzzleParser reset(ByteBuffer data) {
+        if (data.hasArray()) {
+            return reset(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        }
+        this.array = null;
+        this.buffer = data;
+        return start(data.position(), data.limit());
+    }
+
+    private PuzzleParser start(int from, int to) {
+        this.position = from;
+        this.limit = to;
+        this.line = 1;
+        this.lineStart = from;
+        this.error = null;
+        return this;
+    }
+
+    // Reads the next puzzle into the board: PUZZLE, END once the input is used up, or ERROR
+    // (see getError) with the board left partly filled
+    public int next(SudokuBoard board) {
+        board.clear();
+        int cells = 0;
+        while (true) {
+            if (position >= limit) {
+                return cells == 0 ? END : fail(position, "input ends after " + cells + " of " + CELLS + " cells");
+            }
+            if (cells == 0 && array != null && quickLine(board)) {
+                return PUZZLE;
+            }
+            int count = 0; // cells on this line
+            int first = cells;
+            int startLine = line;
+            int startOffset = lineStart;
+            boolean blank = true; // nothing but spaces, tabs and a carriage return so far
+            while (position < limit) {
+                int b = byteAt(position);
+                int kind = CLASS[b & 0xFF];
+                if (kind <= SIZE) {
+                    int cell = first + count;
+                    if (cell >= CELLS) {
+                        report(line, lineStart, position, "more than " + CELLS + " cells");
+                        return skipPuzzle(cells);
+                    }
+                    if (kind != 0) {
+                        if (!board.canPlace(cell, kind)) {
+                            report(line, lineStart, position, kind + " repeats in " + unitName(board, cell, kind));
+                            return skipPuzzle(cells);
+                        }
+                        board.place(cell, kind);
+                    }
+                    count++;
+                } else if (kind == NEWLINE) {
+                    break;
+                } else if (kind == COMMENT) {
+                    while (position < limit && byteAt(position) != '\n') {
+                        position++;
+                    }
+                    blank = false;
+                    break;
+                } else if (kind == INVALID) {
+                    report(line, lineStart, position, "unexpected " + describe(b));
+                    return skipPuzzle(cells);
+                }
+                blank &= b == ' ' || b == '\t' || b == '\r';
+                position++;
+            }
+            boolean fits = count == SIZE && cells % SIZE == 0 || count == CELLS && cells == 0;
+            if (count > 0 && !fits) {
+                report(startLine, startOffset, position,
+                        "expected " + SIZE + " or " + CELLS + " cells on a line, found " + count);
+                return skipPuzzle(cells);
+            }
+            if (position < limit) {
+                position++; // Past the newline
+                line++;
+                lineStart = position;
+            }
+            if (count == 0) {
+                // Box drawing and comments may sit inside a grid, but a blank line ends it
+                if (blank && cells > 0) {
+                    return report(startLine, startOffset, startOffset,
+                            "blank line after " + cells + " of " + CELLS + " cells");
+                }
+                continue;
+            }
+            cells += count;
+            if (cells == CELLS) {
+                return PUZZLE;
+            }
+        }
+    }
+
+    // Message of the last ERROR, with its position, e.g. "line 3, column 14: unexpected 'x'"
+    public String getError() {
+        return error;
+    }
+
+    // Byte offset of the last error within the input
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+
+    public int getErrorLine() {
+        return errorLine;
+    }
+
+    public int getErrorColumn() {
+        return errorColumn;
+    }
+
+    // Exactly one puzzle from text; throws IllegalArgumentException with the error position
+    public static SudokuBoard parse(CharSequence text) {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.ISO_8859_1); // One byte per char keeps columns right
+        return parse(bytes, 0, bytes.length);
+    }
+
+    public static SudokuBoard parse(byte[] data, int offset, int length) {
+        PuzzleParser parser = new PuzzleParser().reset(data, offset, length);
+        SudokuBoard board = new SudokuBoard();
+        int result = parser.next(board);
+        if (result == END) {
+            throw new IllegalArgumentException("No puzzle found");
+        }
+        if (result == ERROR) {
+            throw new IllegalArgumentException(parser.getError());
+        }
+        int lineAfter = parser.line;
+        if (parser.next(new SudokuBoard()) != END) {
+            throw new IllegalArgumentException("line " + lineAfter + ": more than one puzzle");
+        }
+        return board;
+    }
+
+    // One 81-character line (trailing spaces and tabs allowed) into the board; false if it is
+    // malformed or self-contradictory. The strict fast path behind SudokuBatch.
+    public static boolean parseLine(byte[] line, int offset, int length, SudokuBoard board) {
+        while (length > 0 && (line[offset + length - 1] == ' ' || line[offset + length - 1] == '\t')) {
+            length--;
+        }
+        board.clear();
+        return length == CELLS && fill(line, offset, board);
+    }
+
+    // The usual case of a bare 81-character line, in one tight loop; false (with the board
+    // cleared) sends it down the general path, which also finds the error
+    private boolean quickLine(SudokuBoard board) {
+        byte[] data = array;
+        int end = position + CELLS;
+        if (end > limit) {
+            return false;
+        }
+        boolean newline = end < limit && (data[end] == '\n'
+                || (data[end] == '\r' && (end + 1 == limit || data[end + 1] == '\n')));
+        if (end < limit && !newline) {
+            return false;
+        }
+        if (!fill(data, position, board)) {
+            board.clear();
+            return false;
+        }
+        position = end < limit && data[end] == '\r' ? end + 1 : end;
+        if (newline && position < limit) {
+            position++;
+            line++;
+            lineStart = position;
+        }
+        return true;
+    }
+
+    // Loads 81 cell characters into a clear board; false on anything else or a repeated digit
+    private static boolean fill(byte[] data, int offset, SudokuBoard board) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = CLASS[data[offset + cell] & 0xFF];
+            if (digit > SIZE || (digit != 0 && !board.canPlace(cell, digit))) {
+                return false;
+            }
+            if (digit != 0) {
+                board.place(cell, digit);
+            }
+        }
+        return true;
+    }
+
+    private int byteAt(int index) {
+        return array != null ? array[index] : buffer.get(index);
+    }
+
+    private int fail(int at, String message) {
+        report(line, lineStart, at, message);
+        skipLine(at);
+        return ERROR;
+    }
+
+    // Recovers from the error just reported, on a line not yet skipped, so that next() starts
+    // on the following puzzle. 'cells' were read from the grid's earlier rows. A bad row of a
+    // nine-line grid takes the grid's remaining rows with it, so they are not taken for the
+    // start of a puzzle; a first line counts as a row if it holds about nine cells. A one-line
+    // puzzle found where a grid row was expected ends the grid and is read again.
+    private int skipPuzzle(int cells) {
+        int from = errorOffset - errorColumn + 1;
+        int lineCells = lineCells(from);
+        if (cells > 0 && lineCells > 2 * SIZE) {
+            position = from;
+            line = errorLine;
+            lineStart = from;
+            return report(errorLine, from, from, "grid ends after " + cells + " of " + CELLS + " cells");
+        }
+        skipLine(errorOffset);
+        if (cells > 0 || Math.abs(lineCells - SIZE) <= SIZE / 2) { // A bad first row, not a stray line
+            skipRows(SIZE - cells / SIZE - 1);
+        }
+        return ERROR;
+    }
+
+    // Moves past up to the given number of grid rows, or past a blank line if one comes first;
+    // lines of only box drawing or a comment are not rows
+    private void skipRows(int rows) {
+        while (rows > 0 && position < limit) {
+            int cells = lineCells(position);
+            skipLine(position);
+            if (cells < 0) {
+                return;
+            }
+            if (cells > 0) {
+                rows--;
+            }
+        }
+    }
+
+    // Characters on the line starting at 'from' that could be cells (anything but separators),
+    // up to a comment; -1 for a line of only spaces, tabs and a carriage return
+    private int lineCells(int from) {
+        int cells = 0;
+        boolean blank = true;
+        for (int i = from; i < limit; i++) {
+            int b = byteAt(i);
+            int kind = CLASS[b & 0xFF];
+            if (kind == NEWLINE) {
+                break;
+            }
+            if (kind == COMMENT) {
+                return cells;
+            }
+            blank &= b == ' ' || b == '\t' || b == '\r';
+            cells += kind == SEPARATOR ? 0 : 1;
+        }
+        return blank ? -1 : cells;
+    }
+
+    private int report(int lineNumber, int lineOffset, int at, String message) {
+        errorOffset = at;
+        errorLine = lineNumber;
+        errorColumn = at - lineOffset + 1;
+        error = "line " + errorLine + ", column " + errorColumn + ": " + message;
+        return ERROR;
+    }
+
+    // Moves past the rest of the line an error was found on
+    private void skipLine(int from) {
+        position = from;
+        while (position < limit && byteAt(position) != '\n') {
+            position++;
+        }
+        if (position < limit) {
+            position++;
+            line++;
+            lineStart = position;
+        }
+    }
+
+    private static String unitName(SudokuBoard board, int cell, int digit) {
+        int row = SudokuBoard.ROW_OF[cell];
+        int col = SudokuBoard.COL_OF[cell];
+        for (int other : SudokuBoard.UNITS[row]) {
+            if (board.get(other) == digit) {
+                return "row " + (row + 1);
+            }
+        }
+        for (int other : SudokuBoard.UNITS[SIZE + col]) {
+            if (board.get(other) == digit) {
+                return "column " + (col + 1);
+            }
+        }
+        return "box " + (SudokuBoard.BOX_OF[cell] + 1);
+    }
+
+    private static String describe(int b) {
+        int c = b & 0xFF;
+        return c >= 0x20 && c < 0x7F ? "'" + (char) c + "'" : String.format("byte 0x%02X", c);
+    }
+}
@@ -0,0 +1,93 @@
+import java.nio.charset.StandardCharsets;
+
+// Checks that PuzzleParser gets back on track after a bad puzzle: every case is some input
+// with an error followed by valid puzzles, and the valid ones must all come through intact.
+// Plain Java with no test framework; exits with an AssertionError on the first failure.
+//
+// Usage: java PuzzleParserTest
+public class PuzzleParserTest {
+    private static final String FIRST =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    private static final String SECOND =
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000";
+
+    public static void main(String[] args) {
+        String first = grid(FIRST);
+        String second = grid(SECOND);
+
+        // A stray character in row 3 of the first grid: its remaining rows go with it
+        expect(replaceRow(first, 2, "x0 0 0 0 0 0 6 0"), second,
+                "line 3, column 1: unexpected 'x'");
+        expect(replaceRow(first, 2, "x0 0 0 0 0 0 6 0") + "\n", second,
+                "line 3, column 1: unexpected 'x'");
+        // The same in the first and the last row
+        expect(replaceRow(first, 0, "x 3 0 0 7 0 0 0 0"), second,
+                "line 1, column 1: unexpected 'x'");
+        expect(replaceRow(first, 8, "0 0 0 0 8 0 0 7 x"), second,
+                "line 9, column 17: unexpected 'x'");
+        // A short row, and a digit repeated in a row
+        expect(replaceRow(first, 4, "4 0 0"), second,
+                "line 5, column 6: expected 9 or 81 cells on a line, found 3");
+        expect(replaceRow(first, 1, "6 6 0 1 9 5 0 0 0"), second,
+                "line 2, column 3: 6 repeats in row 2");
+        // A blank line ends a grid
+        expect(rows(first, 0, 3) + "\n", second,
+                "line 4, column 1: blank line after 27 of 81 cells");
+        // A one-line puzzle where a row was expected ends the grid and is read on its own
+        expect(rows(first, 0, 2), SECOND + "\n" + second,
+                "line 3, column 1: grid ends after 18 of 81 cells");
+        // A stray short line is only that line
+        expect("bad\n", second + FIRST + "\n",
+                "line 1, column 1: unexpected 'b'");
+        System.out.println("All parser recovery checks passed");
+    }
+
+    // Parses bad + good: one error with the given message, then the puzzles of 'good' in order
+    private static void expect(String bad, String good, String error) {
+        byte[] data = (bad + good).getBytes(StandardCharsets.ISO_8859_1);
+        PuzzleParser parser = new PuzzleParser().reset(data, 0, data.length);
+        SudokuBoard board = new SudokuBoard();
+        check(parser.next(board) == PuzzleParser.ERROR, "no error for " + error);
+        check(error.equals(parser.getError()), "expected '" + error + "', got '" + parser.getError() + "'");
+
+        byte[] expected = good.getBytes(StandardCharsets.ISO_8859_1);
+        PuzzleParser reference = new PuzzleParser().reset(expected, 0, expected.length);
+        SudokuBoard want = new SudokuBoard();
+        while (reference.next(want) == PuzzleParser.PUZZLE) {
+            int result = parser.next(board);
+            check(result == PuzzleParser.PUZZLE, "after '" + error + "': " + parser.getError());
+            check(board.toString().equals(want.toString()), "after '" + error + "': wrong puzzle " + board);
+        }
+        check(parser.next(board) == PuzzleParser.END, "after '" + error + "': input left over");
+    }
+
+    // Nine lines of nine space-separated cells
+    private static String grid(String line) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                sb.append(line.charAt(row * 9 + col)).append(col < 8 ? ' ' : '\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String rows(String grid, int from, int to) {
+        String[] lines = grid.split("\n");
+        StringBuilder sb = new StringBuilder();
+        for (int row = from; row < to; row++) {
+            sb.append(lines[row]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String replaceRow(String grid, int row, String text) {
+        return rows(grid, 0, row) + text + "\n" + rows(grid, row + 1, 9);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
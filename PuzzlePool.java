@@ -0,0 +1,192 @@
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Ready-made puzzles per difficulty level, so "Next" is a queue poll instead of a generation
+// run on the UI thread. Whenever a take leaves a level below its high-water mark, a refill is
+// scheduled on a background executor (at most one per level at a time) that generates puzzles
+// until the level is topped up again. An empty queue is a miss: take() then waits for the
+// refill already under way rather than generating a second puzzle alongside it, and only
+// generates on the caller's thread once no refill can come (after shutdown). takeAsync() does
+// its waiting off the caller's thread, for the UI. Hits, misses and refill latency are kept as
+// metrics. Each level holds puzzles whose logic rating matches it, not just puzzles with a
+// certain number of clues.
+public class PuzzlePool {
+    public static final int DEFAULT_HIGH_WATER_MARK = 8;
+    private static final long REFILL_WAIT_MILLIS = 100; // between checks that a refill is still coming
+
+    private final int highWaterMark;
+    private final ExecutorService executor;
+    private final ExecutorService waiters = Executors.newCachedThreadPool(runnable -> { // for takeAsync() misses
+        Thread thread = new Thread(runnable, "puzzle-pool-take");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Level> levels = new ConcurrentHashMap<>();
+    private final ThreadLocal<SudokuGenerator> generators = ThreadLocal.withInitial(SudokuGenerator::new);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refills = new LongAdder(); // puzzles generated in the background
+    private final LongAdder refillNanos = new LongAdder();
+    private final AtomicLong maxRefillNanos = new AtomicLong();
+
+    public PuzzlePool() {
+        this(DEFAULT_HIGH_WATER_MARK);
+    }
+
+    public PuzzlePool(int highWaterMark) {
+        this(highWaterMark, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "puzzle-pool-refill");
+            thread.setDaemon(true); // Never keeps the application alive
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }));
+    }
+
+    public PuzzlePool(int highWaterMark, ExecutorService executor) {
+        this.highWaterMark = highWaterMark;
+        this.executor = executor;
+    }
+
+    // Starts filling the given levels ahead of the first take
+    public void prefill(String... difficultyLevels) {
+        for (String difficultyLevel : difficultyLevels) {
+            scheduleRefill(level(difficultyLevel));
+        }
+    }
+
+    // Next puzzle for the level; on a miss, blocks until the background refill delivers one
+    public Puzzle take(String difficultyLevel) {
+        Level level = level(difficultyLevel);
+        Puzzle puzzle = level.queue.poll();
+        if (puzzle != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        while (puzzle == null) {
+            scheduleRefill(level);
+            if (!level.refilling.get()) {
+                // No refill is coming, so either the queue was topped up meanwhile or the pool is shut down
+                puzzle = level.queue.poll();
+                if (puzzle == null) {
+                    puzzle = generators.get().generatePuzzle(level.min, level.max);
+                }
+                break;
+            }
+            try {
+                puzzle = level.queue.poll(REFILL_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                puzzle = generators.get().generatePuzzle(level.min, level.max);
+            }
+        }
+        scheduleRefill(level);
+        return puzzle;
+    }
+
+    // Like take(), but never blocks the caller: a hit completes at once, a miss once the
+    // refill delivers, on a pool thread
+    public CompletableFuture<Puzzle> takeAsync(String difficultyLevel) {
+        Level level = level(difficultyLevel);
+        Puzzle puzzle = level.queue.poll();
+        if (puzzle == null) {
+            return CompletableFuture.supplyAsync(() -> take(difficultyLevel), waiters);
+        }
+        hits.increment();
+        scheduleRefill(level);
+        return CompletableFuture.completedFuture(puzzle);
+    }
+
+    public int available(String difficultyLevel) {
+        return level(difficultyLevel).queue.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRefills() {
+        return refills.sum();
+    }
+
+    // Mean time to generate one background puzzle, in nanoseconds
+    public long getMeanRefillNanos() {
+        long count = refills.sum();
+        return count == 0 ? 0 : refillNanos.sum() / count;
+    }
+
+    public long getMaxRefillNanos() {
+        return maxRefillNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PuzzlePool[hits=%d, misses=%d, refills=%d, meanRefill=%.2f ms, maxRefill=%.2f ms]",
+                getHits(), getMisses(), getRefills(), getMeanRefillNanos() / 1e6, getMaxRefillNanos() / 1e6);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow(); // Waiting takes then generate their own; their threads time out when idle
+    }
+
+    private Level level(String difficultyLevel) {
+        return levels.computeIfAbsent(difficultyLevel.toLowerCase(),
+                key -> new Level(SudokuGenerator.difficultyFor(key)));
+    }
+
+    private void scheduleRefill(Level level) {
+        if (!executor.isShutdown() && level.queue.size() < highWaterMark
+                && level.refilling.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> refill(level));
+            } catch (RejectedExecutionException e) {
+                level.refilling.set(false); // Shut down meanwhile; a waiting take() generates instead
+            }
+        }
+    }
+
+    private void refill(Level level) {
+        try {
+            SudokuGenerator generator = generators.get();
+            while (level.queue.size() < highWaterMark && !Thread.currentThread().isInterrupted()) {
+                long start = System.nanoTime();
+                Puzzle puzzle = generator.generatePuzzle(level.min, level.max);
+                long elapsed = System.nanoTime() - start;
+                refills.increment();
+                refillNanos.add(elapsed);
+                maxRefillNanos.accumulateAndGet(elapsed, Math::max);
+                level.queue.offer(puzzle);
+            }
+        } finally {
+            level.refilling.set(false);
+        }
+        // A take may have raced with the end of the loop; top up again if so
+        scheduleRefill(level);
+    }
+
+    private static final class Level {
+        final LogicSolver.Difficulty min;
+        final LogicSolver.Difficulty max;
+        final LinkedBlockingQueue<Puzzle> queue = new LinkedBlockingQueue<>();
+        final AtomicBoolean refilling = new AtomicBoolean();
+
+        Level(LogicSolver.Difficulty[] range) {
+            this.min = range[0];
+            this.max = range[1];
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Writes boards as text into one reusable byte buffer, the output side of PuzzleParser: append
+// as many puzzles as needed, hand the bytes to a stream or socket, reset and go again. Nothing
+// is allocated per puzzle once the buffer has grown to the batch size.
+//
+//   appendLine   81 characters and a newline, the SudokuBatch format
+//   appendGrid   nine rows of nine space-separated cells, then a blank line
+//
+// Both read back with PuzzleParser. Not thread-safe.
+public final class PuzzleSerializer {
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final int SIZE = SudokuBoard.SIZE;
+    static final int LINE_BYTES = CELLS + 1;
+    static final int GRID_BYTES = SIZE * (2 * SIZE) + 1;
+
+    private byte[] buffer;
+    private int length;
+
+    public PuzzleSerializer() {
+        this(64 * LINE_BYTES);
+    }
+
+    public PuzzleSerializer(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, GRID_BYTES)];
+    }
+
+    // The board as one line, blanks written as the given character ('0' or '.')
+    public PuzzleSerializer appendLine(SudokuBoard board, char blank) {
+        ensure(LINE_BYTES);
+        length += writeLine(board, buffer, length, (byte) blank);
+        return this;
+    }
+
+    public PuzzleSerializer appendLine(SudokuBoard board) {
+        return appendLine(board, '0');
+    }
+
+    // The board as a 9x9 grid, blanks written as the given character
+    public PuzzleSerializer appendGrid(SudokuBoard board, char blank) {
+        ensure(GRID_BYTES);
+        byte[] out = buffer;
+        int at = length;
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int digit = board.get(row * SIZE + col);
+                out[at++] = digit == 0 ? (byte) blank : (byte) ('0' + digit);
+                out[at++] = col == SIZE - 1 ? (byte) '\n' : (byte) ' ';
+            }
+        }
+        out[at++] = '\n';
+        length = at;
+        return this;
+    }
+
+    // Free text such as a status word; ASCII is expected
+    public PuzzleSerializer append(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    public PuzzleSerializer append(char c) {
+        ensure(1);
+        buffer[length++] = (byte) c;
+        return this;
+    }
+
+    // The bytes written so far are buffer()[0..length()-1]; the array is reused after reset()
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    // Writes the board as 81 digits and a newline at out[offset]; returns the bytes written
+    public static int writeLine(SudokuBoard board, byte[] out, int offset) {
+        return writeLine(board, out, offset, (byte) '0');
+    }
+
+    private static int writeLine(SudokuBoard board, byte[] out, int offset, byte blank) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = board.get(cell);
+            out[offset + cell] = digit == 0 ? blank : (byte) ('0' + digit);
+        }
+        out[offset + CELLS] = '\n';
+        return LINE_BYTES;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
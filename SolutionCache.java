@@ -0,0 +1,171 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide memory of solved puzzles, so asking for the same puzzle again (repeated Check or
+// Solve presses, a custom puzzle loaded twice) costs a key computation and a map lookup instead
+// of a search. Keeps the most recently used entries up to a fixed capacity and evicts the least
+// recently used one beyond that. Only solved puzzles are stored.
+//
+// Entries are keyed on the puzzle's canonical form and hold the solution in canonical space, so
+// one entry serves every relabeled, transposed or line-permuted variant of a puzzle: a lookup
+// canonicalizes the puzzle and maps the stored solution back through the inverse transform.
+// key() does the canonicalizing once, so a miss can be followed by a put of the solution
+// without canonicalizing the puzzle a second time.
+//
+// The entries are spread by hash over up to SEGMENTS independently locked LRU maps, so
+// concurrent solvers rarely wait on each other; eviction is least recently used per segment.
+public class SolutionCache {
+    public static final int DEFAULT_CAPACITY = 1024;
+    static final int SEGMENTS = 16;
+
+    private static final SolutionCache SHARED = new SolutionCache(DEFAULT_CAPACITY);
+
+    private final Segment[] segments;
+    private final ThreadLocal<Canonicalizer> canonicalizers = ThreadLocal.withInitial(Canonicalizer::new);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SolutionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        // A power of two no larger than the capacity, so every segment holds at least one entry
+        int count = Math.min(SEGMENTS, Integer.highestOneBit(capacity));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    // The cache shared by everything in this process
+    public static SolutionCache shared() {
+        return SHARED;
+    }
+
+    // Canonicalizes the puzzle, for use with get(Key) and put(Key, ...)
+    public Key key(SudokuBoard puzzle) {
+        Canonicalizer canonicalizer = canonicalizers.get();
+        canonicalizer.canonicalize(puzzle);
+        Key key = new Key(canonicalizer.form());
+        canonicalizer.copyTransform(key.cells, key.relabel);
+        return key;
+    }
+
+    // A new board holding the solution of the puzzle, or null if it has not been solved yet
+    public SudokuBoard get(SudokuBoard puzzle) {
+        return get(key(puzzle));
+    }
+
+    public SudokuBoard get(Key key) {
+        Segment segment = segment(key);
+        SudokuBoard canonical;
+        synchronized (segment) {
+            canonical = segment.get(key.form);
+        }
+        if (canonical == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return key.fromCanonical(canonical);
+    }
+
+    // Remembers a solution; nothing is kept of the caller's boards
+    public void put(SudokuBoard puzzle, SudokuBoard solution) {
+        put(key(puzzle), solution);
+    }
+
+    public void put(Key key, SudokuBoard solution) {
+        SudokuBoard canonical = key.toCanonical(solution);
+        Segment segment = segment(key);
+        synchronized (segment) {
+            segment.put(key.form, canonical);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "SolutionCache[size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
+
+    private Segment segment(Key key) {
+        return segments[(int) (key.form.hash() >>> 32) & (segments.length - 1)];
+    }
+
+    // A puzzle's canonical form and the transform that carries its boards into canonical space
+    public static final class Key {
+        private final CanonicalForm form;
+        private final byte[] cells = new byte[SudokuBoard.CELLS]; // canonical cell -> puzzle cell
+        private final byte[] relabel = new byte[SudokuBoard.SIZE + 1]; // puzzle digit -> canonical
+
+        private Key(CanonicalForm form) {
+            this.form = form;
+        }
+
+        public CanonicalForm getForm() {
+            return form;
+        }
+
+        private SudokuBoard toCanonical(SudokuBoard board) {
+            SudokuBoard out = new SudokuBoard();
+            for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+                int digit = board.get(cells[cell]);
+                if (digit != 0) {
+                    out.place(cell, relabel[digit]);
+                }
+            }
+            return out;
+        }
+
+        private SudokuBoard fromCanonical(SudokuBoard canonical) {
+            int[] inverse = new int[SudokuBoard.SIZE + 1];
+            for (int digit = 1; digit <= SudokuBoard.SIZE; digit++) {
+                inverse[relabel[digit]] = digit;
+            }
+            SudokuBoard out = new SudokuBoard();
+            for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+                int digit = canonical.get(cell);
+                if (digit != 0) {
+                    out.place(cells[cell], inverse[digit]);
+                }
+            }
+            return out;
+        }
+    }
+
+    // An access-ordered LinkedHashMap keeps the least recently used entry first; guarded by itself
+    private static final class Segment extends LinkedHashMap<CanonicalForm, SudokuBoard> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CanonicalForm, SudokuBoard> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,582 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Counts, or visits one by one, every completion of a partial board of any box size up to 5.
+// Nothing is collected: each solution is handed to a Listener and forgotten, and the search
+// keeps one board and one stack of empty cells per thread, so memory stays flat however many
+// solutions there are.
+//
+// The top of the search tree is first expanded breadth-first on the most-constrained cell into
+// a frontier of independent subtrees, a few hundred per thread. Worker threads on a ForkJoinPool
+// take subtrees off the frontier and search them to the end. A subtree's solutions are only
+// added to the total once it is finished, so the total never counts a half-searched subtree.
+//
+// That makes the frontier plus the total a complete record of the run: with checkpointTo() it
+// is written to disk every so often (to a temporary file, then renamed over the old one), and
+// resume() carries on from the last checkpoint after a crash or stop(). Subtrees that were being
+// searched when the checkpoint was taken are searched again from the start, so after a resume a
+// Listener may be given some solutions a second time; the count is always exact.
+//
+// Checkpoint (text): a "# comment" line, "box B", "board <cells>", "counted N", "remaining M",
+// then M lines of subtree boards; cells are one character each as in GeneralBoard.parse.
+//
+// Counts are longs; anything that finishes in a human lifetime fits. An instance runs once.
+//
+// Usage: java SolutionEnumerator [--threads N] [--split N] [--checkpoint file] [--interval seconds]
+//                                [--print] puzzle
+//        java SolutionEnumerator [--threads N] [--interval seconds] [--print] --resume file
+public class SolutionEnumerator {
+    // Told about every solution, from several threads at once. The array holds the digit of
+    // every cell and is reused as soon as the call returns.
+    public interface Listener {
+        void solution(int[] cells);
+    }
+
+    public static final int MAX_BOX = 5; // a unit's digits must fit in an int
+    public static final int DEFAULT_TASKS_PER_THREAD = 256;
+    public static final long DEFAULT_INTERVAL_MILLIS = 60_000;
+
+    private static final String HEADER = "# sudoku solution enumeration checkpoint v1";
+    private static final int STOP_CHECK_NODES = 1 << 12;
+
+    private final int box;
+    private final String board; // the starting board, for the checkpoint
+    private final ForkJoinPool pool;
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private Path checkpoint;
+    private long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private IOException checkpointFailure;
+    private boolean started;
+
+    // Guarded by this
+    private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+    private final Set<byte[]> running = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long counted; // solutions in finished subtrees
+
+    // Splits the board into about tasksPerThread subtrees for each thread of the pool
+    public SolutionEnumerator(GeneralBoard board, ForkJoinPool pool, int tasksPerThread) {
+        if (board.getBox() > MAX_BOX) {
+            throw new IllegalArgumentException("Box size " + board.getBox() + " is above " + MAX_BOX);
+        }
+        this.box = board.getBox();
+        this.board = board.toString();
+        this.pool = pool;
+        byte[] root = new byte[board.getCellCount()];
+        for (int cell = 0; cell < root.length; cell++) {
+            root[cell] = (byte) board.get(cell);
+        }
+        if (board.isConsistent()) {
+            split(root, Math.max(1, (long) pool.getParallelism() * tasksPerThread));
+        }
+    }
+
+    public SolutionEnumerator(GeneralBoard board) {
+        this(board, ForkJoinPool.commonPool(), DEFAULT_TASKS_PER_THREAD);
+    }
+
+    public static SolutionEnumerator of(SudokuBoard board) {
+        return new SolutionEnumerator(GeneralBoard.of(board.toArray()));
+    }
+
+    private SolutionEnumerator(int box, String board, ForkJoinPool pool) {
+        this.box = box;
+        this.board = board;
+        this.pool = pool;
+    }
+
+    // Carries on from a checkpoint file; further checkpoints go to the same file
+    public static SolutionEnumerator resume(Path file, ForkJoinPool pool) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            if (!HEADER.equals(in.readLine())) {
+                throw new IOException(file + " is not an enumeration checkpoint");
+            }
+            int box = Integer.parseInt(field(in, "box"));
+            if (box < 1 || box > MAX_BOX) {
+                throw new IOException("Box size " + box + " out of range in " + file);
+            }
+            String board = field(in, "board");
+            SolutionEnumerator enumerator = new SolutionEnumerator(box, board, pool);
+            enumerator.counted = Long.parseLong(field(in, "counted"));
+            long remaining = Long.parseLong(field(in, "remaining"));
+            for (long i = 0; i < remaining; i++) {
+                String line = in.readLine();
+                if (line == null) {
+                    throw new IOException("Checkpoint ends after " + i + " of " + remaining + " subtrees");
+                }
+                try {
+                    enumerator.pending.add(cells(GeneralBoard.parse(line, box)));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Bad subtree " + i + ": " + e.getMessage(), e);
+                }
+            }
+            enumerator.checkpoint = file;
+            return enumerator;
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad number in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Writes the frontier to the file every intervalMillis, and once more when the run ends
+    public SolutionEnumerator checkpointTo(Path file, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + intervalMillis);
+        }
+        this.checkpoint = file;
+        this.intervalMillis = intervalMillis;
+        return this;
+    }
+
+    public long count() {
+        return enumerate(null);
+    }
+
+    // Searches every remaining subtree, handing each solution to the listener (null to only
+    // count). Returns the number of solutions, or the count so far if stop() was called.
+    public long enumerate(Listener listener) {
+        synchronized (this) {
+            if (started) {
+                throw new IllegalStateException("An enumeration runs only once");
+            }
+            started = true;
+        }
+        Thread writer = checkpoint == null ? null : new Thread(this::checkpointLoop, "enumeration-checkpoint");
+        if (writer != null) {
+            writer.setDaemon(true);
+            writer.start();
+        }
+        try {
+            List<ForkJoinTask<?>> workers = new ArrayList<>();
+            for (int i = 0; i < pool.getParallelism(); i++) {
+                workers.add(pool.submit(() -> work(listener)));
+            }
+            for (ForkJoinTask<?> worker : workers) {
+                worker.join();
+            }
+        } finally {
+            if (writer != null) {
+                writer.interrupt();
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        if (checkpoint != null) {
+            try {
+                writeCheckpoint();
+            } catch (IOException e) {
+                checkpointFailure = e;
+            }
+            if (checkpointFailure != null) {
+                throw new UncheckedIOException(checkpointFailure);
+            }
+        }
+        return getCounted();
+    }
+
+    // Asks the workers to stop soon; unfinished subtrees stay on the frontier for resume()
+    public void stop() {
+        stop.set(true);
+    }
+
+    // Solutions in the subtrees finished so far
+    public synchronized long getCounted() {
+        return counted;
+    }
+
+    // Subtrees not yet finished, including those being searched
+    public synchronized int getRemaining() {
+        return pending.size() + running.size();
+    }
+
+    public synchronized boolean isComplete() {
+        return pending.isEmpty() && running.isEmpty();
+    }
+
+    public int getBox() {
+        return box;
+    }
+
+    // Writes the frontier now, from the calling thread
+    public void writeCheckpoint() throws IOException {
+        if (checkpoint == null) {
+            throw new IllegalStateException("No checkpoint file set");
+        }
+        long total;
+        List<byte[]> frontier;
+        synchronized (this) {
+            total = counted;
+            frontier = new ArrayList<>(running);
+            frontier.addAll(pending);
+        }
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temp),
+                StandardCharsets.US_ASCII), 1 << 16)) {
+            out.write(HEADER + "\nbox " + box + "\nboard " + board + "\ncounted " + total
+                    + "\nremaining " + frontier.size() + "\n");
+            char[] line = new char[board.length() + 1];
+            line[board.length()] = '\n';
+            for (byte[] cells : frontier) {
+                for (int cell = 0; cell < cells.length; cell++) {
+                    line[cell] = cells[cell] == 0 ? '.' : GeneralBoard.DIGITS.charAt(cells[cell] - 1);
+                }
+                out.write(line);
+            }
+        }
+        try {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void checkpointLoop() {
+        try {
+            while (true) {
+                Thread.sleep(intervalMillis);
+                try {
+                    writeCheckpoint();
+                } catch (IOException e) {
+                    checkpointFailure = e; // Keep going; the final write reports it
+                }
+            }
+        } catch (InterruptedException e) {
+            // The run is over
+        }
+    }
+
+    private void work(Listener listener) {
+        Search search = new Search(box, listener, stop);
+        while (!stop.get()) {
+            byte[] task;
+            synchronized (this) {
+                task = pending.poll();
+                if (task == null) {
+                    return;
+                }
+                running.add(task);
+            }
+            long found = search.run(task);
+            if (search.stopped) {
+                return; // Left in running, so the checkpoint keeps it
+            }
+            synchronized (this) {
+                running.remove(task);
+                counted += found;
+            }
+        }
+    }
+
+    // Breadth-first expansion of the root until there are enough subtrees. Dead ends are dropped;
+    // solved boards become subtrees of their own so the listener still sees them.
+    private void split(byte[] root, long target) {
+        Search search = new Search(box, null, stop);
+        ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty() && queue.size() + pending.size() < target) {
+            byte[] task = queue.poll();
+            search.load(task);
+            int cell = search.pickCell();
+            if (cell == Search.FILLED) {
+                pending.add(task);
+            } else if (cell != Search.DEAD_END) {
+                for (int mask = search.candidates(cell); mask != 0; mask &= mask - 1) {
+                    byte[] child = task.clone();
+                    child[cell] = (byte) (Integer.numberOfTrailingZeros(mask) + 1);
+                    queue.add(child);
+                }
+            }
+        }
+        pending.addAll(queue);
+    }
+
+    private static String field(BufferedReader in, String name) throws IOException {
+        String line = in.readLine();
+        if (line == null || !line.startsWith(name + " ")) {
+            throw new IOException("Expected '" + name + "' in checkpoint, got " + line);
+        }
+        return line.substring(name.length() + 1).trim();
+    }
+
+    private static byte[] cells(GeneralBoard board) {
+        byte[] cells = new byte[board.getCellCount()];
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = (byte) board.get(cell);
+        }
+        return cells;
+    }
+
+    // Depth-first counting search over one subtree, one digit bit per unit and an array of the
+    // empty cells that the chosen cell is swapped out of on the way down and back into on the
+    // way up. Branches on the cell with fewest candidates, which also places forced cells first.
+    private static final class Search {
+        static final int FILLED = -1;
+        static final int DEAD_END = -2;
+
+        private final int side;
+        private final int all;
+        private final int[] values;
+        private final int[] rowUsed;
+        private final int[] colUsed;
+        private final int[] boxUsed;
+        private final int[] rowOf;
+        private final int[] colOf;
+        private final int[] boxOf;
+        private final int[] empty;
+        private int emptyCount;
+        private final Listener listener;
+        private final AtomicBoolean stop;
+        private long found;
+        private long nodes;
+        boolean stopped;
+
+        Search(int box, Listener listener, AtomicBoolean stop) {
+            this.side = box * box;
+            this.all = (1 << side) - 1;
+            int cellCount = side * side;
+            this.values = new int[cellCount];
+            this.rowUsed = new int[side];
+            this.colUsed = new int[side];
+            this.boxUsed = new int[side];
+            this.rowOf = new int[cellCount];
+            this.colOf = new int[cellCount];
+            this.boxOf = new int[cellCount];
+            this.empty = new int[cellCount];
+            for (int cell = 0; cell < cellCount; cell++) {
+                rowOf[cell] = cell / side;
+                colOf[cell] = cell % side;
+                boxOf[cell] = (rowOf[cell] / box) * box + colOf[cell] / box;
+            }
+            this.listener = listener;
+            this.stop = stop;
+        }
+
+        // The subtree's solutions, or a partial count with stopped set
+        long run(byte[] task) {
+            load(task);
+            found = 0;
+            search();
+            return found;
+        }
+
+        // Subtree boards are consistent: they come from the checked root or from a checkpoint
+        // written by one
+        void load(byte[] task) {
+            Arrays.fill(rowUsed, 0);
+            Arrays.fill(colUsed, 0);
+            Arrays.fill(boxUsed, 0);
+            emptyCount = 0;
+            for (int cell = 0; cell < task.length; cell++) {
+                values[cell] = task[cell];
+                if (task[cell] == 0) {
+                    empty[emptyCount++] = cell;
+                } else {
+                    int bit = 1 << (task[cell] - 1);
+                    rowUsed[rowOf[cell]] |= bit;
+                    colUsed[colOf[cell]] |= bit;
+                    boxUsed[boxOf[cell]] |= bit;
+                }
+            }
+        }
+
+        int candidates(int cell) {
+            return all & ~(rowUsed[rowOf[cell]] | colUsed[colOf[cell]] | boxUsed[boxOf[cell]]);
+        }
+
+        // The empty cell with fewest candidates, FILLED or DEAD_END
+        int pickCell() {
+            int index = pickIndex();
+            return index < 0 ? index : empty[index];
+        }
+
+        private int pickIndex() {
+            if (emptyCount == 0) {
+                return FILLED;
+            }
+            int best = -1;
+            int bestCount = Integer.MAX_VALUE;
+            for (int i = 0; i < emptyCount; i++) {
+                int count = Integer.bitCount(candidates(empty[i]));
+                if (count < bestCount) {
+                    if (count == 0) {
+                        return DEAD_END;
+                    }
+                    best = i;
+                    bestCount = count;
+                    if (count == 1) {
+                        break;
+                    }
+                }
+            }
+            return best;
+        }
+
+        private void search() {
+            if ((++nodes & (STOP_CHECK_NODES - 1)) == 0 && stop.get()) {
+                stopped = true;
+            }
+            if (stopped) {
+                return;
+            }
+            int index = pickIndex();
+            if (index == FILLED) {
+                found++;
+                if (listener != null) {
+                    listener.solution(values);
+                }
+                return;
+            }
+            if (index == DEAD_END) {
+                return;
+            }
+            int cell = empty[index];
+            int last = --emptyCount;
+            empty[index] = empty[last];
+            empty[last] = cell;
+            int row = rowOf[cell];
+            int col = colOf[cell];
+            int square = boxOf[cell];
+            for (int mask = candidates(cell); mask != 0 && !stopped; mask &= mask - 1) {
+                int bit = mask & -mask;
+                values[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+                rowUsed[row] |= bit;
+                colUsed[col] |= bit;
+                boxUsed[square] |= bit;
+                search();
+                rowUsed[row] ^= bit;
+                colUsed[col] ^= bit;
+                boxUsed[square] ^= bit;
+            }
+            values[cell] = 0;
+            empty[last] = empty[index];
+            empty[index] = cell;
+            emptyCount++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int split = DEFAULT_TASKS_PER_THREAD;
+        long interval = DEFAULT_INTERVAL_MILLIS;
+        Path checkpointFile = null;
+        Path resumeFile = null;
+        boolean print = false;
+        int arg = 0;
+        for (; arg < args.length && args[arg].startsWith("--"); arg++) {
+            switch (args[arg]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++arg]);
+                    break;
+                case "--split":
+                    split = Integer.parseInt(args[++arg]);
+                    break;
+                case "--checkpoint":
+                    checkpointFile = Paths.get(args[++arg]);
+                    break;
+                case "--interval":
+                    interval = Long.parseLong(args[++arg]) * 1000;
+                    break;
+                case "--resume":
+                    resumeFile = Paths.get(args[++arg]);
+                    break;
+                case "--print":
+                    print = true;
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[arg]);
+                    return;
+            }
+        }
+        if (resumeFile == null && arg != args.length - 1) {
+            System.err.println("Usage: java SolutionEnumerator [--threads N] [--split N] [--checkpoint file]"
+                    + " [--interval seconds] [--print] puzzle | --resume file");
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        SolutionEnumerator enumerator;
+        if (resumeFile != null) {
+            enumerator = resume(resumeFile, pool).checkpointTo(resumeFile, interval);
+        } else {
+            String puzzle = args[arg];
+            int box = (int) Math.round(Math.sqrt(Math.sqrt(puzzle.replaceAll("\\s", "").length())));
+            enumerator = new SolutionEnumerator(GeneralBoard.parse(puzzle, box), pool, split);
+            if (checkpointFile != null) {
+                enumerator.checkpointTo(checkpointFile, interval);
+            }
+        }
+        if (resumeFile != null) {
+            System.err.println("Resuming with " + enumerator.getCounted() + " counted and "
+                    + enumerator.getRemaining() + " subtrees to search");
+        }
+
+        // Ctrl-C stops the workers and lets the final checkpoint be written before exit
+        CountDownLatch finished = new CountDownLatch(1);
+        SolutionEnumerator running = enumerator;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            running.stop();
+            try {
+                finished.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        long start = System.nanoTime();
+        Writer out = print ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16)
+                : null;
+        try {
+            long total = enumerator.enumerate(out == null ? null : cells -> {
+                char[] line = new char[cells.length + 1];
+                for (int cell = 0; cell < cells.length; cell++) {
+                    line[cell] = GeneralBoard.DIGITS.charAt(cells[cell] - 1);
+                }
+                line[cells.length] = '\n';
+                synchronized (out) {
+                    try {
+                        out.write(line);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            if (out != null) {
+                out.flush();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (enumerator.isComplete()) {
+                System.err.printf("%d solutions in %.1f s%n", total, seconds);
+            } else {
+                System.err.printf("Stopped after %.1f s with %d counted and %d subtrees left%s%n", seconds, total,
+                        enumerator.getRemaining(),
+                        enumerator.checkpoint != null ? "; resume from " + enumerator.checkpoint : "");
+            }
+        } finally {
+            finished.countDown();
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Gathers solve requests arriving one by one from many threads into micro-batches for a
+// ForkJoinPool, the request-driven counterpart of ParallelBatchSolver. A dispatcher thread takes
+// the first waiting job, lingers up to LINGER_NANOS for more, then splits the batch into one
+// slice per pool thread; each pool thread keeps its own solver, so nothing is shared while
+// solving. Under load batches fill instantly and the linger never applies; when idle a lone
+// request waits at most the linger.
+//
+// Admission is bounded: at most 'capacity' puzzles may be queued or solving at once, and a
+// submit that does not fit is refused on the spot instead of queueing, so callers can shed load
+// (the HTTP service answers 503) and latency stays bounded. Batch submits are all or nothing.
+public class SolveBatcher {
+    public static final int DEFAULT_CAPACITY = 4096;
+    static final int MAX_BATCH = 256;
+    private static final long LINGER_NANOS = 500_000; // 0.5 ms
+    static final long NODE_BUDGET = 2_000_000; // per puzzle; beyond it the answer is GAVE_UP
+
+    public enum Outcome { SOLVED, UNSOLVABLE, GAVE_UP }
+
+    private final Semaphore permits;
+    private final int capacity;
+    private final LinkedBlockingQueue<Job> queue = new LinkedBlockingQueue<>();
+    private final ForkJoinPool pool;
+    private final ThreadLocal<BitmaskSolver> solvers = ThreadLocal.withInitial(BitmaskSolver::new);
+    private final SolutionCache cache;
+    private final Thread dispatcher;
+    private final Object admission = new Object(); // orders queueing against shutdown
+    private boolean running = true; // guarded by admission
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public SolveBatcher(int threads, int capacity) {
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+        this.pool = new ForkJoinPool(threads);
+        this.cache = SolutionCache.shared();
+        this.dispatcher = new Thread(this::dispatch, "sudoku-batch-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // One solve result: the outcome and, when SOLVED, the solution
+    public static final class Result {
+        private final Outcome outcome;
+        private final SudokuBoard solution;
+
+        Result(Outcome outcome, SudokuBoard solution) {
+            this.outcome = outcome;
+            this.solution = solution;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public SudokuBoard getSolution() {
+            return solution;
+        }
+    }
+
+    // Queues a copy of the board; null if the batcher is full
+    public CompletableFuture<Result> submit(SudokuBoard board) {
+        List<CompletableFuture<Result>> futures = submitAll(Collections.singletonList(board));
+        return futures == null ? null : futures.get(0);
+    }
+
+    // Queues copies of all the boards, or none of them (returning null) if they do not all fit
+    public List<CompletableFuture<Result>> submitAll(List<SudokuBoard> boards) {
+        List<Job> jobs = new ArrayList<>(boards.size());
+        List<CompletableFuture<Result>> futures = new ArrayList<>(boards.size());
+        for (SudokuBoard board : boards) {
+            Job job = new Job(board);
+            jobs.add(job);
+            futures.add(job.future);
+        }
+        // Queued before shutdown() flips 'running', so the dispatcher's final drain sees them
+        synchronized (admission) {
+            if (!running || !permits.tryAcquire(boards.size())) {
+                rejected.add(boards.size());
+                return null;
+            }
+            queue.addAll(jobs);
+        }
+        accepted.add(boards.size());
+        return futures;
+    }
+
+    // Puzzles queued or being solved
+    public int inFlight() {
+        return capacity - permits.availablePermits();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public void shutdown() {
+        synchronized (admission) {
+            running = false;
+        }
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(); // No batch may reach the pool once it is shut down
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+        List<Job> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + LINGER_NANOS;
+                while (batch.size() < MAX_BATCH) {
+                    queue.drainTo(batch, MAX_BATCH - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() == MAX_BATCH || wait <= 0) {
+                        break;
+                    }
+                    Job next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                schedule(batch);
+                batch = new ArrayList<>(MAX_BATCH);
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+        // Jobs already drained into the batch were never scheduled, so they are dropped too
+        for (Job job : batch) {
+            cancel(job);
+        }
+        for (Job job; (job = queue.poll()) != null; ) {
+            cancel(job);
+        }
+    }
+
+    // Completes a job that will never be solved and gives back its admission permit
+    private void cancel(Job job) {
+        job.future.cancel(false);
+        permits.release();
+    }
+
+    // Splits the batch into one slice per pool thread
+    private void schedule(List<Job> batch) {
+        batches.increment();
+        int slices = Math.min(batch.size(), pool.getParallelism());
+        for (int s = 0; s < slices; s++) {
+            List<Job> slice = batch.subList(s * batch.size() / slices, (s + 1) * batch.size() / slices);
+            pool.execute(() -> {
+                for (Job job : slice) {
+                    solve(job);
+                }
+            });
+        }
+    }
+
+    private void solve(Job job) {
+        try {
+            SolutionCache.Key key = cache.key(job.board); // Canonicalized once for the lookup and the put
+            SudokuBoard cached = cache.get(key);
+            if (cached != null) {
+                job.future.complete(new Result(Outcome.SOLVED, cached));
+                return;
+            }
+            SudokuBoard solution = new SudokuBoard();
+            solution.copyFrom(job.board);
+            int outcome = solvers.get().solveBounded(solution, NODE_BUDGET, null);
+            if (outcome == BitmaskSolver.SOLVED) {
+                cache.put(key, solution);
+                job.future.complete(new Result(Outcome.SOLVED, solution));
+            } else {
+                job.future.complete(new Result(outcome == BitmaskSolver.UNSOLVABLE ? Outcome.UNSOLVABLE
+                        : Outcome.GAVE_UP, null));
+            }
+        } catch (RuntimeException e) {
+            job.future.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static final class Job {
+        final SudokuBoard board;
+        final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        Job(SudokuBoard board) {
+            SudokuBoard copy = new SudokuBoard();
+            copy.copyFrom(board);
+            this.board = copy;
+        }
+    }
+}
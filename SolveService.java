@@ -0,0 +1,168 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// Runs solves on background threads so the JavaFX Application Thread never blocks on a search.
+// Every request gets a time budget and a cancel flag that the solver polls inside its search
+// loop, and may report progress (positions tried so far) at most every PROGRESS_INTERVAL_NANOS.
+// Callbacks run on the solving thread; GUI code wraps them in Platform.runLater.
+// Puzzles found in the solution cache complete at once, without touching the executor.
+public class SolveService {
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L; // at most 10 reports a second
+
+    public enum Status { SOLVED, UNSOLVABLE, CANCELLED, TIMED_OUT, FAILED }
+
+    private final ExecutorService executor;
+    private final SolutionCache cache; // null to always search
+    private final ThreadLocal<BitmaskSolver> solvers = ThreadLocal.withInitial(BitmaskSolver::new);
+
+    public SolveService() {
+        this(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-solve");
+            thread.setDaemon(true); // Never keeps the application alive
+            return thread;
+        }), SolutionCache.shared());
+    }
+
+    public SolveService(ExecutorService executor, SolutionCache cache) {
+        this.executor = executor;
+        this.cache = cache;
+    }
+
+    // Starts solving a copy of the board; progress may be null
+    public Request solve(SudokuBoard board, long timeoutMillis, LongConsumer progress) {
+        SudokuBoard copy = new SudokuBoard();
+        copy.copyFrom(board);
+        Request request = new Request();
+        SolutionCache.Key key = cache == null ? null : cache.key(board); // Reused to store the solution
+        SudokuBoard cached = key == null ? null : cache.get(key);
+        if (cached != null) {
+            copy.copyFrom(cached);
+            request.future.complete(new Result(Status.SOLVED, copy, 0, 0));
+            return request;
+        }
+        executor.execute(() -> {
+            try {
+                request.future.complete(run(copy, key, timeoutMillis, progress, request.cancelled));
+            } catch (RuntimeException e) {
+                request.future.completeExceptionally(e);
+            }
+        });
+        return request;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Result run(SudokuBoard board, SolutionCache.Key key, long timeoutMillis, LongConsumer progress,
+            AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        if (cancelled.get()) {
+            return new Result(Status.CANCELLED, null, 0, 0);
+        }
+        BitmaskSolver solver = solvers.get();
+        int outcome = solver.solveMonitored(board, cancelled, start + timeoutMillis * 1_000_000L,
+                progress == null ? null : throttle(progress, start));
+        long elapsed = System.nanoTime() - start;
+
+        Status status;
+        if (outcome == BitmaskSolver.SOLVED) {
+            status = Status.SOLVED;
+            if (key != null) {
+                cache.put(key, board);
+            }
+        } else if (outcome == BitmaskSolver.UNSOLVABLE) {
+            status = Status.UNSOLVABLE;
+        } else {
+            status = cancelled.get() ? Status.CANCELLED : Status.TIMED_OUT;
+        }
+        return new Result(status, status == Status.SOLVED ? board : null, solver.getNodeCount(), elapsed);
+    }
+
+    // Drops progress reports that come sooner than PROGRESS_INTERVAL_NANOS after the last one
+    private static LongConsumer throttle(LongConsumer progress, long start) {
+        long[] last = {start};
+        return nodes -> {
+            long now = System.nanoTime();
+            if (now - last[0] >= PROGRESS_INTERVAL_NANOS) {
+                last[0] = now;
+                progress.accept(nodes);
+            }
+        };
+    }
+
+    // Handle on one submitted solve
+    public static final class Request {
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        // Asks the search to stop; it notices within 64 nodes
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        // Runs the callback with the result once the solve finishes; a solve that threw
+        // reports FAILED, so the callback always runs
+        public void whenDone(Consumer<Result> callback) {
+            future.whenComplete((result, error) -> callback.accept(error == null ? result : Result.failed(error)));
+        }
+
+        public CompletableFuture<Result> future() {
+            return future;
+        }
+    }
+
+    public static final class Result {
+        private final Status status;
+        private final SudokuBoard solution;
+        private final long nodes;
+        private final long elapsedNanos;
+        private final Throwable error;
+
+        Result(Status status, SudokuBoard solution, long nodes, long elapsedNanos) {
+            this(status, solution, nodes, elapsedNanos, null);
+        }
+
+        private Result(Status status, SudokuBoard solution, long nodes, long elapsedNanos, Throwable error) {
+            this.status = status;
+            this.solution = solution;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+            this.error = error;
+        }
+
+        static Result failed(Throwable error) {
+            return new Result(Status.FAILED, null, 0, 0, error);
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        // The solved board, or null unless the status is SOLVED
+        public SudokuBoard getSolution() {
+            return solution;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        // What the solve threw, or null unless the status is FAILED
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
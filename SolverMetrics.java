@@ -0,0 +1,229 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Process-wide solver statistics. Instrumentation is off unless the JVM starts with
+// -Dsudoku.metrics=true: ENABLED is a static final constant, so the JIT folds every
+// "if (SolverMetrics.ENABLED)" in the hot paths away and a disabled build pays nothing.
+//
+// When on, each solver counts in plain fields of its own while it searches and hands the totals
+// over once per solve. The totals land in LongAdders, which keep per-thread stripes and only
+// merge them when read, so threads solving side by side never contend on a shared counter.
+// The first use registers the statistics with the platform MBean server.
+public final class SolverMetrics implements SolverMetricsMXBean {
+    public static final boolean ENABLED = Boolean.getBoolean("sudoku.metrics");
+    public static final String OBJECT_NAME = "sudoku:type=SolverMetrics";
+
+    private static final SolverMetrics SHARED = new SolverMetrics();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(SHARED, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                System.err.println("Solver metrics are not visible over JMX: " + e);
+            }
+        }
+    }
+
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder backtracks = new LongAdder();
+    private final LongAdder nakedSingles = new LongAdder();
+    private final LongAdder hiddenSingles = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final Histogram wallTimes = new Histogram();
+    private final Histogram nodeCounts = new Histogram();
+    private final LongAdder[] eliminations = new LongAdder[LogicSolver.Technique.values().length];
+
+    private SolverMetrics() {
+        for (int i = 0; i < eliminations.length; i++) {
+            eliminations[i] = new LongAdder();
+        }
+    }
+
+    public static SolverMetrics shared() {
+        return SHARED;
+    }
+
+    // CPU time of the calling thread for timing a solve, or 0 where the JVM cannot tell
+    static long threadCpuNanos() {
+        return Cpu.SUPPORTED ? Cpu.THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    // Looked up on first use, so a disabled build never loads the thread MXBean
+    private static final class Cpu {
+        static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+        static final boolean SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported();
+    }
+
+    // One finished search
+    void recordSearch(long nodes, long backtracks, long nakedSingles, long hiddenSingles, int maxDepth,
+            long wallNanos, long cpuNanos) {
+        solves.increment();
+        this.nodes.add(nodes);
+        this.backtracks.add(backtracks);
+        this.nakedSingles.add(nakedSingles);
+        this.hiddenSingles.add(hiddenSingles);
+        this.maxDepth.accumulate(maxDepth);
+        this.wallNanos.add(wallNanos);
+        this.cpuNanos.add(cpuNanos);
+        wallTimes.record(wallNanos);
+        nodeCounts.record(nodes);
+    }
+
+    // Candidates each technique eliminated in one LogicSolver run, indexed by technique ordinal
+    void recordEliminations(int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                eliminations[i].add(counts[i]);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getSolveCount() {
+        return solves.sum();
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtracks.sum();
+    }
+
+    @Override
+    public long getNakedSingleCount() {
+        return nakedSingles.sum();
+    }
+
+    @Override
+    public long getHiddenSingleCount() {
+        return hiddenSingles.sum();
+    }
+
+    @Override
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public long getWallTimeNanos() {
+        return wallNanos.sum();
+    }
+
+    @Override
+    public long getCpuTimeNanos() {
+        return cpuNanos.sum();
+    }
+
+    @Override
+    public long getWallTimeP50Nanos() {
+        return wallTimes.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getWallTimeP99Nanos() {
+        return wallTimes.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getWallTimeP999Nanos() {
+        return wallTimes.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getWallTimeMaxNanos() {
+        return wallTimes.getMax();
+    }
+
+    @Override
+    public long getNodesP50() {
+        return nodeCounts.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getNodesP99() {
+        return nodeCounts.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getNodesMax() {
+        return nodeCounts.getMax();
+    }
+
+    @Override
+    public Map<String, Long> getEliminationsByTechnique() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        LogicSolver.Technique[] techniques = LogicSolver.Technique.values();
+        for (int i = 0; i < techniques.length; i++) {
+            result.put(techniques[i].toString(), eliminations[i].sum());
+        }
+        return result;
+    }
+
+    public Histogram getWallTimes() {
+        return wallTimes;
+    }
+
+    public Histogram getNodeCounts() {
+        return nodeCounts;
+    }
+
+    @Override
+    public void reset() {
+        solves.reset();
+        nodes.reset();
+        backtracks.reset();
+        nakedSingles.reset();
+        hiddenSingles.reset();
+        maxDepth.reset();
+        wallNanos.reset();
+        cpuNanos.reset();
+        wallTimes.reset();
+        nodeCounts.reset();
+        for (LongAdder adder : eliminations) {
+            adder.reset();
+        }
+    }
+
+    // Multi-line report for the console
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("solves=").append(getSolveCount())
+                .append(" nodes=").append(getNodeCount())
+                .append(" backtracks=").append(getBacktrackCount())
+                .append(" nakedSingles=").append(getNakedSingleCount())
+                .append(" hiddenSingles=").append(getHiddenSingleCount())
+                .append(" maxDepth=").append(getMaxDepth())
+                .append(" wallMs=").append(getWallTimeNanos() / 1_000_000)
+                .append(" cpuMs=").append(getCpuTimeNanos() / 1_000_000)
+                .append(System.lineSeparator()).append("wall ns: ").append(wallTimes)
+                .append(System.lineSeparator()).append("nodes:   ").append(nodeCounts);
+        String separator = System.lineSeparator() + "eliminations: ";
+        for (Map.Entry<String, Long> entry : getEliminationsByTechnique().entrySet()) {
+            if (entry.getValue() > 0) {
+                sb.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+                separator = ", ";
+            }
+        }
+        return sb.toString();
+    }
+}
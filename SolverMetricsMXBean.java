@@ -0,0 +1,44 @@
+import java.util.Map;
+
+// Read side of the solver instrumentation, as seen by code and by JMX consoles (jconsole,
+// VisualVM, ...) under the name in SolverMetrics.OBJECT_NAME. Counts are totals since start
+// or the last reset; times are in nanoseconds.
+public interface SolverMetricsMXBean {
+    boolean isEnabled();
+
+    long getSolveCount();
+
+    long getNodeCount();
+
+    long getBacktrackCount();
+
+    long getNakedSingleCount();
+
+    long getHiddenSingleCount();
+
+    // Deepest guess chain any search has gone
+    long getMaxDepth();
+
+    long getWallTimeNanos();
+
+    long getCpuTimeNanos();
+
+    long getWallTimeP50Nanos();
+
+    long getWallTimeP99Nanos();
+
+    long getWallTimeP999Nanos();
+
+    long getWallTimeMaxNanos();
+
+    long getNodesP50();
+
+    long getNodesP99();
+
+    long getNodesMax();
+
+    // Candidates eliminated by each human-style technique, by technique name
+    Map<String, Long> getEliminationsByTechnique();
+
+    void reset();
+}
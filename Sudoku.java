@@ -1,77 +1,62 @@
 public class Sudoku {
-    private int[][] board; // 9x9 grid to represent the Sudoku board
+    private final SudokuBoard board = new SudokuBoard(); // 9x9 grid to represent the Sudoku board
+    private final SudokuSolver solver; // Backend that does the actual search
 
     // Constructor to initialize the board with a given initial state
     public Sudoku(int[][] initialBoard) {
-        board = new int[9][9];
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                board[i][j] = initialBoard[i][j];
-            }
-        }
+        this(initialBoard, new BitmaskSolver());
+    }
+
+    // Constructor that picks the solving backend, e.g. DancingLinksSolver
+    public Sudoku(int[][] initialBoard, SudokuSolver solver) {
+        this.solver = solver;
+        board.load(initialBoard);
     }
 
     // Method to get the current board (for GUI)
     public int[][] getBoard() {
+        return board.toArray();
+    }
+
+    // Method to get the underlying compact board without copying
+    public SudokuBoard getGrid() {
         return board;
     }
 
-    // Method to set the board based on a 2D array
+    // Method to set the board based on a 2D array (the array is copied, not aliased)
     public void setBoard(int[][] newBoard) {
-        this.board = newBoard;
+        board.load(newBoard);
     }
 
-    // Solve method to initiate the backtracking process
-    public boolean solve() {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (board[row][col] == 0) { // Empty cell found
-                    for (int num = 1; num <= 9; num++) { // Try digits 1-9
-                        if (isValid(row, col, num)) {
-                            board[row][col] = num; // Place the number
-
-                            if (solve()) { // Recursively attempt to solve
-                                return true; // Solution found
-                            }
+    // Method to set the board from another compact board
+    public void setBoard(SudokuBoard newBoard) {
+        board.copyFrom(newBoard);
+    }
 
-                            // Reset the cell (backtrack)
-                            board[row][col] = 0;
-                        }
-                    }
-                    return false; // No valid number found for this cell
-                }
-            }
-        }
-        return true; // Puzzle solved
+    // Solve method; delegates to the configured backend
+    public boolean solve() {
+        return solver.solve(board);
     }
 
-    // Method to check if a number can be placed in the given row and column
-    private boolean isValid(int row, int col, int num) {
-        // Check row
-        for (int c = 0; c < 9; c++) {
-            if (board[row][c] == num) {
-                return false; // Found a duplicate in the row
-            }
-        }
+    // Counts solutions of the current board, stopping once the limit is reached
+    public int countSolutions(int limit) {
+        return solver.countSolutions(board, limit);
+    }
 
-        // Check column
-        for (int r = 0; r < 9; r++) {
-            if (board[r][col] == num) {
-                return false; // Found a duplicate in the column
-            }
-        }
+    // True if the current board has exactly one solution
+    public boolean hasUniqueSolution() {
+        return solver.countSolutions(board, 2) == 1;
+    }
 
-        // Check 3x3 grid
-        int gridRowStart = row - row % 3;
-        int gridColStart = col - col % 3;
-        for (int r = gridRowStart; r < gridRowStart + 3; r++) {
-            for (int c = gridColStart; c < gridColStart + 3; c++) {
-                if (board[r][c] == num) {
-                    return false; // Found a duplicate in the grid
-                }
-            }
-        }
+    // Counts every solution of the current board with no limit, searching subtrees in parallel
+    public long countAllSolutions() {
+        return SolutionEnumerator.of(board).count();
+    }
 
-        return true; // No conflicts found
+    // Hands every solution of the current board to the listener, from several threads at once,
+    // without keeping them; returns how many there were. See SolutionEnumerator for
+    // checkpointing long runs.
+    public long forEachSolution(SolutionEnumerator.Listener listener) {
+        return SolutionEnumerator.of(board).enumerate(listener);
     }
 }
@@ -0,0 +1,150 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// Headless batch solver. Reads one puzzle per line in the usual 81-character format
+// ('1'-'9' for givens, '0' or '.' for blanks), solves it and writes one line per puzzle:
+// the 81-digit solution, "no solution" or "invalid input". Input is streamed through a single
+// reused line buffer, so memory stays flat however long the file is.
+//
+// Usage: java SudokuBatch [--dlx] [--threads N] [--unordered] [input|-] [output]
+// With --threads the work is spread over a ParallelBatchSolver; --unordered writes results
+// as they complete instead of in input order. Started with -Dsudoku.metrics=true it also
+// prints the solver statistics (see SolverMetrics) when it is done.
+public class SudokuBatch {
+    private static final int CELLS = SudokuBoard.CELLS;
+    static final byte[] NO_SOLUTION = "no solution\n".getBytes();
+    static final byte[] INVALID_INPUT = "invalid input\n".getBytes();
+
+    private final SudokuSolver solver;
+    private final SudokuBoard board = new SudokuBoard();
+    private final byte[] line = new byte[4096]; // current input line, reused
+    private final byte[] out = new byte[CELLS + 1]; // current output line, reused
+
+    private long puzzles;
+    private long solved;
+    private long unsolvable;
+    private long invalid;
+
+    public SudokuBatch(SudokuSolver solver) {
+        this.solver = solver;
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean dlx = false;
+        boolean ordered = true;
+        int threads = 1;
+        int arg = 0;
+        while (arg < args.length && args[arg].startsWith("--")) {
+            switch (args[arg]) {
+                case "--dlx":
+                    dlx = true;
+                    break;
+                case "--unordered":
+                    ordered = false;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++arg]);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[arg]);
+                    return;
+            }
+            arg++;
+        }
+        InputStream in = arg < args.length && !args[arg].equals("-") ? new FileInputStream(args[arg]) : System.in;
+        arg++;
+        OutputStream out = arg < args.length ? new FileOutputStream(args[arg]) : System.out;
+
+        long start = System.nanoTime();
+        try (InputStream input = new BufferedInputStream(in, 1 << 16);
+             OutputStream output = new BufferedOutputStream(out, 1 << 16)) {
+            if (threads > 1) {
+                boolean useDlx = dlx;
+                ParallelBatchSolver parallel = new ParallelBatchSolver(threads, ordered,
+                        () -> useDlx ? new DancingLinksSolver() : new BitmaskSolver());
+                parallel.run(input, output);
+                System.err.println(parallel.summary(System.nanoTime() - start));
+                parallel.shutdown();
+            } else {
+                SudokuBatch batch = new SudokuBatch(dlx ? new DancingLinksSolver() : new BitmaskSolver());
+                batch.run(input, output);
+                System.err.println(batch.summary(System.nanoTime() - start));
+            }
+            if (SolverMetrics.ENABLED) {
+                System.err.println(SolverMetrics.shared());
+            }
+        }
+    }
+
+    // Solves every puzzle in the stream; the caller owns (and closes) both streams
+    public void run(InputStream in, OutputStream output) throws IOException {
+        int length;
+        while ((length = readLine(in, line)) >= 0) {
+            if (length == 0) {
+                continue; // Skip blank lines
+            }
+            puzzles++;
+            if (!parse(line, 0, length, board)) {
+                invalid++;
+                output.write(INVALID_INPUT);
+            } else if (solver.solve(board)) {
+                solved++;
+                output.write(out, 0, format(board, out, 0));
+            } else {
+                unsolvable++;
+                output.write(NO_SOLUTION);
+            }
+        }
+        output.flush();
+    }
+
+    public long getPuzzles() {
+        return puzzles;
+    }
+
+    public long getSolved() {
+        return solved;
+    }
+
+    public String summary(long elapsedNanos) {
+        return summary(puzzles, solved, unsolvable, invalid, elapsedNanos);
+    }
+
+    static String summary(long puzzles, long solved, long unsolvable, long invalid, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%d puzzles (%d solved, %d no solution, %d invalid) in %.3f s, %.0f puzzles/s",
+                puzzles, solved, unsolvable, invalid, seconds, seconds > 0 ? puzzles / seconds : 0.0);
+    }
+
+    // Reads the next line into the buffer without its terminator; -1 at end of stream.
+    // Lines longer than the buffer are truncated, which makes them fail to parse.
+    static int readLine(InputStream in, byte[] line) throws IOException {
+        int length = 0;
+        int b = in.read();
+        if (b < 0) {
+            return -1;
+        }
+        while (b >= 0 && b != '\n') {
+            if (b != '\r' && length < line.length) {
+                line[length++] = (byte) b;
+            }
+            b = in.read();
+        }
+        return length;
+    }
+
+    // Loads an 81-character puzzle into the board; false if it is malformed or self-contradictory
+    static boolean parse(byte[] line, int offset, int length, SudokuBoard board) {
+        return PuzzleParser.parseLine(line, offset, length, board);
+    }
+
+    // Writes the board as 81 digits and a newline; returns the number of bytes written
+    static int format(SudokuBoard board, byte[] out, int offset) {
+        return PuzzleSerializer.writeLine(board, out, offset);
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.Arrays;
+
+// Compact 9x9 board shared by the solvers, the generator and the GUI. Cells live in one flat
+// 81-byte array (index = row * 9 + col) and the digits used by every row, column and box are
+// cached as 9-bit masks, so candidate lookups are three loads and an OR. Placements made with
+// place() go on an in-place undo stack; copyFrom() is a cheap way to branch without allocating.
+public class SudokuBoard {
+    public static final int SIZE = 9;
+    public static final int CELLS = SIZE * SIZE;
+    public static final int ALL_DIGITS = 0x1FF; // bits 0-8 stand for digits 1-9
+
+    // Lookup tables so the hot path never divides or takes a remainder
+    static final int[] ROW_OF = new int[CELLS];
+    static final int[] COL_OF = new int[CELLS];
+    static final int[] BOX_OF = new int[CELLS];
+    static final int[][] UNITS = new int[3 * SIZE][SIZE]; // 9 rows, 9 columns, 9 boxes
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            int box = (row / 3) * 3 + col / 3;
+            ROW_OF[cell] = row;
+            COL_OF[cell] = col;
+            BOX_OF[cell] = box;
+            UNITS[row][col] = cell;
+            UNITS[SIZE + col][row] = cell;
+            UNITS[2 * SIZE + box][(row % 3) * 3 + col % 3] = cell;
+        }
+    }
+
+    private final byte[] cells = new byte[CELLS]; // 0 for empty, otherwise the digit
+    private final int[] rowUsed = new int[SIZE]; // digits already placed in each row
+    private final int[] colUsed = new int[SIZE];
+    private final int[] boxUsed = new int[SIZE];
+    private final int[] trail = new int[CELLS]; // cells placed so far, in order, for undo
+    private int trailSize;
+
+    public SudokuBoard() {
+    }
+
+    // Board holding a copy of a 9x9 array (0 for empty cells)
+    public static SudokuBoard of(int[][] grid) {
+        SudokuBoard board = new SudokuBoard();
+        board.load(grid);
+        return board;
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public int get(int row, int col) {
+        return cells[row * SIZE + col];
+    }
+
+    // Digits that can still go in an empty cell, as a 9-bit mask
+    public int candidates(int cell) {
+        return ALL_DIGITS & ~(rowUsed[ROW_OF[cell]] | colUsed[COL_OF[cell]] | boxUsed[BOX_OF[cell]]);
+    }
+
+    public boolean canPlace(int cell, int digit) {
+        return cells[cell] == 0 && (candidates(cell) & (1 << (digit - 1))) != 0;
+    }
+
+    // Fills an empty cell and pushes it on the undo stack; the caller checks canPlace first
+    public void place(int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        cells[cell] = (byte) digit;
+        rowUsed[ROW_OF[cell]] |= bit;
+        colUsed[COL_OF[cell]] |= bit;
+        boxUsed[BOX_OF[cell]] |= bit;
+        trail[trailSize++] = cell;
+    }
+
+    // Current depth of the undo stack, to hand back to undo() later
+    public int mark() {
+        return trailSize;
+    }
+
+    // Takes back every placement made after the given mark
+    public void undo(int mark) {
+        while (trailSize > mark) {
+            int cell = trail[--trailSize];
+            int bit = ~(1 << (cells[cell] - 1));
+            cells[cell] = 0;
+            rowUsed[ROW_OF[cell]] &= bit;
+            colUsed[COL_OF[cell]] &= bit;
+            boxUsed[BOX_OF[cell]] &= bit;
+        }
+    }
+
+    // Overwrites a cell outside the undo stack (used for editing); anything outside 1-9 clears
+    // it. The board may then hold conflicting digits, so the affected masks are rebuilt and the
+    // undo stack is dropped.
+    public void set(int row, int col, int digit) {
+        int cell = row * SIZE + col;
+        cells[cell] = (byte) (digit >= 1 && digit <= SIZE ? digit : 0);
+        trailSize = 0;
+        rowUsed[row] = unitMask(UNITS[row]);
+        colUsed[col] = unitMask(UNITS[SIZE + col]);
+        boxUsed[BOX_OF[cell]] = unitMask(UNITS[2 * SIZE + BOX_OF[cell]]);
+    }
+
+    public boolean isEmpty(int cell) {
+        return cells[cell] == 0;
+    }
+
+    public int filledCount() {
+        int count = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+        trailSize = 0;
+    }
+
+    // Makes this board an exact copy of another one, undo stack included
+    public void copyFrom(SudokuBoard other) {
+        System.arraycopy(other.cells, 0, cells, 0, CELLS);
+        System.arraycopy(other.rowUsed, 0, rowUsed, 0, SIZE);
+        System.arraycopy(other.colUsed, 0, colUsed, 0, SIZE);
+        System.arraycopy(other.boxUsed, 0, boxUsed, 0, SIZE);
+        System.arraycopy(other.trail, 0, trail, 0, other.trailSize);
+        trailSize = other.trailSize;
+    }
+
+    // Replaces the contents with a 9x9 array; digits outside 1-9 are treated as empty
+    public void load(int[][] grid) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = grid[ROW_OF[cell]][COL_OF[cell]];
+            cells[cell] = (byte) (digit >= 1 && digit <= SIZE ? digit : 0);
+        }
+        rebuildMasks();
+    }
+
+    public void copyTo(int[][] grid) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            grid[ROW_OF[cell]][COL_OF[cell]] = cells[cell];
+        }
+    }
+
+    public int[][] toArray() {
+        int[][] grid = new int[SIZE][SIZE];
+        copyTo(grid);
+        return grid;
+    }
+
+    // True if no row, column or box holds the same digit twice
+    public boolean isConsistent() {
+        for (int[] unit : UNITS) {
+            int seen = 0;
+            for (int cell : unit) {
+                if (cells[cell] != 0) {
+                    int bit = 1 << (cells[cell] - 1);
+                    if ((seen & bit) != 0) {
+                        return false;
+                    }
+                    seen |= bit;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean isSolved() {
+        return filledCount() == CELLS && isConsistent();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(CELLS);
+        for (int cell = 0; cell < CELLS; cell++) {
+            sb.append((char) ('0' + cells[cell]));
+        }
+        return sb.toString();
+    }
+
+    private void rebuildMasks() {
+        for (int i = 0; i < SIZE; i++) {
+            rowUsed[i] = unitMask(UNITS[i]);
+            colUsed[i] = unitMask(UNITS[SIZE + i]);
+            boxUsed[i] = unitMask(UNITS[2 * SIZE + i]);
+        }
+        trailSize = 0;
+    }
+
+    private int unitMask(int[] unit) {
+        int mask = 0;
+        for (int cell : unit) {
+            if (cells[cell] != 0) {
+                mask |= 1 << (cells[cell] - 1);
+            }
+        }
+        return mask;
+    }
+}
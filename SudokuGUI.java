@@ -1,27 +1,51 @@
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.scene.control.TextField;
+import javafx.scene.control.Label;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
-import java.util.Random;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.util.Duration;
+import java.util.concurrent.CompletableFuture;
 
 public class SudokuGUI extends Application {
 
-    private TextField[][] cells = new TextField[9][9];
-    private int[][] board = new int[9][9];
-    private int[][] fixedBoard = new int[9][9]; // Stores the fixed puzzle cells
+    // Puzzles are generated in the background so Next never waits for the generator
+    private static final PuzzlePool PUZZLE_POOL = new PuzzlePool();
+
+    // Solving and checking run off the FX thread, and give up after this long
+    private static final SolveService SOLVE_SERVICE = new SolveService();
+    private static final long SOLVE_TIMEOUT_MILLIS = 10_000;
+
+    private final BoardView boardView = new BoardView(); // The grid, drawn on one canvas
+    private final SudokuBoard board = new SudokuBoard();
+    private final SudokuBoard fixedBoard = new SudokuBoard(); // Stores the fixed puzzle cells
     private String difficultyLevel;
-    private TextField selectedCell = null; // Track the currently selected cell
+    private SudokuBoard customGivens; // Puzzle passed in from the home screen, shown instead of a generated one
     private Button checkButton; // Moved checkButton to class level
+    private final Label statusLabel = new Label(); // Solve progress and errors
+    private SolveService.Request pendingSolve; // Background solve or check still running
+    private SolveService.Request puzzleSolve; // Finding the solution of a loaded puzzle; Check and Solve leave it running
+    private CompletableFuture<Puzzle> puzzleTake; // Generated puzzle still on its way from a dry pool
+
+    // Live rule checking: digit counts per unit, updated on every edit
+    private final ConflictTracker conflicts = new ConflictTracker();
+    private boolean solutionKnown; // True while 'board' holds the solution of the puzzle on screen
+    private final HintEngine hints = new HintEngine(); // Follows every edit, so a hint costs microseconds
+    private MoveHistory history = new MoveHistory(new SudokuBoard()); // Every edit since the puzzle was shown
 
     public SudokuGUI(String difficulty) {
         this.difficultyLevel = difficulty;
+        PUZZLE_POOL.prefill(difficulty);
+    }
+
+    public SudokuGUI(int[][] customBoard) {
+        this.difficultyLevel = "Easy"; // Next moves on to generated puzzles
+        this.customGivens = SudokuBoard.of(customBoard);
     }
 
     @Override
@@ -34,29 +58,43 @@ public class SudokuGUI extends Application {
         backButton.getStyleClass().add("back-button");
 
         // Sudoku grid with borders
-        GridPane grid = createSudokuGrid();
-        grid.setId("mainGrid"); // Add CSS ID for styling
-        generatePuzzle(difficultyLevel);
+        boardView.setId("mainGrid"); // Add CSS ID for styling
+        boardView.setEditListener((cell, digit) -> setEntry(cell, digit, true));
+        if (customGivens != null) {
+            loadPuzzle(customGivens);
+        } else {
+            generatePuzzle(difficultyLevel);
+        }
 
         // Buttons for Next, Undo, and Check at the bottom
         HBox buttonBox = new HBox(10);
         Button nextButton = new Button("Next");
         Button undoButton = new Button("Undo");
+        Button redoButton = new Button("Redo");
         checkButton = new Button("Check"); // Initialize checkButton here
 
         nextButton.getStyleClass().add("button");
         undoButton.getStyleClass().add("button");
+        redoButton.getStyleClass().add("button");
         checkButton.getStyleClass().add("button-check");
 
-        nextButton.setOnAction(e -> generatePuzzle(difficultyLevel));
+        nextButton.setOnAction(e -> {
+            cancelAllSolves();
+            generatePuzzle(difficultyLevel);
+        });
         checkButton.setOnAction(e -> checkPuzzle());
         undoButton.setOnAction(e -> undoLastInput());
+        redoButton.setOnAction(e -> redoLastInput());
+
+        Button hintButton = new Button("Hint");
+        hintButton.getStyleClass().add("button");
+        hintButton.setOnAction(e -> showHint());
 
         Button customPuzzleButton = new Button("Custom Puzzle");
         customPuzzleButton.setOnAction(e -> openCustomPuzzle());
         buttonBox.getChildren().add(customPuzzleButton);
 
-        buttonBox.getChildren().addAll(nextButton, undoButton, checkButton);
+        buttonBox.getChildren().addAll(nextButton, undoButton, redoButton, checkButton, hintButton);
         buttonBox.setAlignment(Pos.CENTER);
         buttonBox.setPadding(new Insets(10, 0, 10, 0));
 
@@ -78,7 +116,7 @@ public class SudokuGUI extends Application {
         numberButtons.setAlignment(Pos.CENTER);
         numberButtons.setPadding(new Insets(10, 0, 10, 0));
 
-        VBox centerLayout = new VBox(10, grid, buttonBox, solveButton, numberButtons);
+        VBox centerLayout = new VBox(10, boardView, buttonBox, solveButton, statusLabel, numberButtons);
         centerLayout.setAlignment(Pos.CENTER);
 
         mainLayout.setTop(backButton);
@@ -93,298 +131,302 @@ public class SudokuGUI extends Application {
         primaryStage.show();
     }
     private void openCustomPuzzle() {
+        cancelAllSolves(); // A late result would belong to the puzzle being cleared away
         // Clear the current board
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                cells[row][col].setText(""); // Clear the text
-                cells[row][col].setEditable(true); // Make cells editable
-                cells[row][col].setStyle("-fx-background-color: white; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black;"); // Reset styles
-                fixedBoard[row][col] = 0; // Reset the fixed board
-            }
+        for (int cell = 0; cell < 81; cell++) {
+            boardView.setGiven(cell, false); // Make cells editable
+            setEntry(cell, 0, false);
         }
+        boardView.clearMarks();
+        fixedBoard.clear(); // Reset the fixed board
+        solutionKnown = false; // Check has to solve the entries from now on
+        hints.setSolution(null);
+        history = new MoveHistory(fixedBoard);
         System.out.println("Custom puzzle opened. Please enter your values.");
     }
 
 
     private void goToHomeScreen(Stage primaryStage) {
         System.out.println("Back to home screen");
+        cancelAllSolves();
         primaryStage.close(); // Placeholder action for returning to home screen
     }
 
+    // Takes back the last edit anywhere on the board, as often as there are edits
     private void undoLastInput() {
-        if (selectedCell != null) {
-            selectedCell.setText(""); // Clear the selected cell
-            selectedCell.setStyle("-fx-background-color: white; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black; -fx-border-width: 1;"); // Reset style
-            selectedCell = null; // Reset selected cell
+        showHistoryCell(history.undo());
+    }
+
+    private void redoLastInput() {
+        showHistoryCell(history.redo());
+    }
+
+    // Puts the history's digit for a cell back on screen without recording it as a new move
+    private void showHistoryCell(int cell) {
+        if (cell < 0) {
+            return;
         }
+        setEntry(cell, history.get(cell), false);
+        boardView.select(cell);
     }
 
     private void checkPuzzle() {
         checkButton.setDisable(true); // Disable the button
 
-        // Solve the puzzle and store the solution in 'board' if not already solved
-        if (!solveSudoku(board)) {
-            System.out.println("Error: Unable to solve the puzzle.");
+        // A generated puzzle comes with its solution, so there is nothing to solve
+        if (solutionKnown) {
+            showCheckResult();
             return;
         }
 
-        // Reset styles for all editable cells before checking
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (fixedBoard[row][col] == 0) { // Only reset editable cells
-                    cells[row][col].setStyle("-fx-background-color: white; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black; -fx-border-width: 1; -fx-text-fill: black;");
-                }
-            }
+        // Entries that break the rules cannot be part of any solution
+        if (conflicts.hasConflicts()) {
+            statusLabel.setText("Some entries clash with their row, column or box.");
+            checkButton.setDisable(false);
+            return;
         }
 
-        // Check the user's input against the solution
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                String userInput = cells[row][col].getText();
-                if (!userInput.isEmpty() && fixedBoard[row][col] == 0) { // Only check editable cells
-                    try {
-                        int userValue = Integer.parseInt(userInput);
-                        // Compare with the solved board
-                        if (userValue == board[row][col]) {
-                            cells[row][col].setStyle("-fx-background-color: white; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black; -fx-border-width: 1; -fx-text-fill: green;");
-                        } else {
-                            cells[row][col].setStyle("-fx-background-color: white; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black; -fx-border-width: 1; -fx-text-fill: red;");
-                        }
-                    } catch (NumberFormatException e) {
-                        // Handle non-numeric input
-                        cells[row][col].setStyle("-fx-background-color: white; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black; -fx-border-width: 1; -fx-text-fill: red;");
-                    }
-                }
+        // Otherwise solve the entries in the background; the result is checked on the FX thread
+        cancelPendingSolve();
+        statusLabel.setText("Checking...");
+        SolveService.Request request = SOLVE_SERVICE.solve(readEntries(), SOLVE_TIMEOUT_MILLIS, null);
+        pendingSolve = request;
+        request.whenDone(result -> Platform.runLater(() -> {
+            if (request != pendingSolve) {
+                checkButton.setDisable(false); // Superseded by a newer request
+                return;
             }
-        }
-
-        // Re-enable the button after 3 seconds and reset colors to black
-        Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(3), event -> {
-            for (int row = 0; row < 9; row++) {
-                for (int col = 0; col < 9; col++) {
-                    if (fixedBoard[row][col] == 0) { // Reset only editable cells
-                        cells[row][col].setStyle("-fx-background-color: white; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black; -fx-border-width: 1; -fx-text-fill: black;");
-                    }
-                }
+            pendingSolve = null;
+            if (result.getStatus() != SolveService.Status.SOLVED) {
+                statusLabel.setText("Error: Unable to solve the puzzle.");
+                checkButton.setDisable(false);
+                return;
             }
-            checkButton.setDisable(false); // Re-enable the button
+            board.copyFrom(result.getSolution()); // Store the solution in 'board'
+            showCheckResult();
         }));
-        timeline.play();
     }
 
+    // Marks every entry green or red against the solution in 'board'
+    private void showCheckResult() {
+        statusLabel.setText("");
 
-    private GridPane createSudokuGrid() {
-        GridPane mainGrid = new GridPane();
-        mainGrid.setAlignment(Pos.CENTER);
-        mainGrid.setPadding(new Insets(10));
-        mainGrid.setVgap(10);
-        mainGrid.setHgap(10);
-        mainGrid.setStyle("-fx-border-color: black; -fx-border-width: 2;");
-
-        for (int subGridRow = 0; subGridRow < 3; subGridRow++) {
-            for (int subGridCol = 0; subGridCol < 3; subGridCol++) {
-                GridPane subGrid = new GridPane();
-                subGrid.setPadding(new Insets(2));
-                subGrid.setVgap(1);
-                subGrid.setHgap(1);
-
-                for (int row = 0; row < 3; row++) {
-                    for (int col = 0; col < 3; col++) {
-                        int globalRow = subGridRow * 3 + row;
-                        int globalCol = subGridCol * 3 + col;
-
-                        cells[globalRow][globalCol] = new TextField();
-                        cells[globalRow][globalCol].setPrefSize(50, 50);
-                        cells[globalRow][globalCol].setStyle(
-                                "-fx-font-size: 20; -fx-alignment: center; -fx-border-color: black; -fx-border-width: 1;");
-                        cells[globalRow][globalCol].setEditable(false); // Start as non-editable
-                        cells[globalRow][globalCol].setOnMouseClicked(e -> selectCell(globalRow, globalCol));
-
-                        subGrid.add(cells[globalRow][globalCol], col, row);
-                    }
-                }
-                mainGrid.add(subGrid, subGridCol, subGridRow);
+        // Check the user's input against the solution
+        boardView.clearMarks();
+        for (int cell = 0; cell < 81; cell++) {
+            // The tracker already holds the digit on screen, 0 for an empty cell
+            int userValue = conflicts.get(cell);
+            if (userValue != 0 && fixedBoard.get(cell) == 0) { // Only check editable cells
+                boardView.setMark(cell, userValue == board.get(cell) ? BoardRenderer.Mark.CORRECT : BoardRenderer.Mark.WRONG);
             }
         }
-        return mainGrid;
-    }
 
-    private void selectCell(int row, int col) {
-        if (selectedCell != null) {
-            selectedCell.setStyle("-fx-background-color: white; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black;");
-        }
-        selectedCell = cells[row][col];
-        selectedCell.setStyle("-fx-background-color: lightblue; -fx-font-size: 20; -fx-alignment: center; -fx-border-color: black;");
+        // Re-enable the button after 3 seconds and reset colors to black
+        Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(3), event -> {
+            boardView.clearMarks(); // Entries that still clash stay red
+            checkButton.setDisable(false); // Re-enable the button
+        }));
+        timeline.play();
     }
 
     private void enterNumber(int num) {
-        if (selectedCell != null && fixedBoard[getCellRow(selectedCell)][getCellCol(selectedCell)] == 0) {
-            selectedCell.setText(String.valueOf(num));
+        int cell = boardView.getSelected();
+        if (cell >= 0 && fixedBoard.get(cell) == 0) {
+            setEntry(cell, num, true);
         }
     }
 
-    private int getCellRow(TextField cell) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (cells[row][col] == cell) {
-                    return row;
-                }
-            }
+    // Shows a digit in a cell and keeps the rule checks, the hints and the history in step;
+    // only the cells whose look changes are repainted
+    private void setEntry(int cell, int digit, boolean record) {
+        boardView.setDigit(cell, digit);
+        conflicts.set(cell, digit);
+        hints.set(cell, digit);
+        if (record) {
+            history.set(cell, digit);
+        }
+        boardView.setConflict(cell, conflicts.isConflict(cell));
+        for (int peer : ConflictTracker.PEERS[cell]) {
+            boardView.setConflict(peer, conflicts.isConflict(peer));
         }
-        return -1; // Not found
     }
 
-    private int getCellCol(TextField cell) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (cells[row][col] == cell) {
-                    return col;
-                }
-            }
+    // The digits on screen as a board, read from the conflict tracker instead of the text fields
+    private SudokuBoard readEntries() {
+        SudokuBoard entries = new SudokuBoard();
+        for (int cell = 0; cell < 81; cell++) {
+            entries.set(cell / 9, cell % 9, conflicts.get(cell));
         }
-        return -1; // Not found
+        return entries;
     }
 
     private void generatePuzzle(String difficultyLevel) {
-        // Reset board and fixed board
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                board[i][j] = 0;
-                fixedBoard[i][j] = 0;
-            }
+        // Take a ready puzzle and its solution from the shared pool; if it has run dry, the
+        // wait for the background refill happens off the FX thread
+        CompletableFuture<Puzzle> take = PUZZLE_POOL.takeAsync(difficultyLevel);
+        if (take.isDone() && !take.isCompletedExceptionally()) {
+            showPuzzle(take.join());
+            return;
         }
-
-        fillBoard();
-        createPuzzle(difficultyLevel);
-        updateCells();
+        puzzleTake = take;
+        statusLabel.setText("Generating puzzle...");
+        take.whenComplete((puzzle, error) -> Platform.runLater(() -> {
+            if (take != puzzleTake) {
+                return; // Something else has been shown meanwhile
+            }
+            puzzleTake = null;
+            if (error != null) {
+                statusLabel.setText("Error: " + error);
+            } else {
+                showPuzzle(puzzle);
+            }
+        }));
     }
 
-    private void fillBoard() {
-        solvePuzzle(); // Solve to get a completed board
+    private void showPuzzle(Puzzle puzzle) {
+        board.copyFrom(puzzle.getSolution());
+        fixedBoard.copyFrom(puzzle.getGivens());
+        solutionKnown = true;
+        SolutionCache.shared().put(fixedBoard, board);
+        updateCells();
+        String rating = puzzle.getDifficulty().name();
+        statusLabel.setText("Rated " + rating.charAt(0) + rating.substring(1).toLowerCase());
     }
 
-    private void createPuzzle(String difficultyLevel) {
-        Random rand = new Random();
-        int numberOfCellsToRemove;
-
-        switch (difficultyLevel) {
-            case "easy":
-                numberOfCellsToRemove = 36; // Easy puzzles have more cells
-                break;
-            case "medium":
-                numberOfCellsToRemove = 45; // Medium puzzles
-                break;
-            case "hard":
-                numberOfCellsToRemove = 54; // Hard puzzles have fewer cells
-                break;
-            default:
-                numberOfCellsToRemove = 36;
-        }
+    // Shows a puzzle that came without a solution and solves it once, in the background
+    private void loadPuzzle(SudokuBoard givens) {
+        cancelAllSolves();
+        fixedBoard.copyFrom(givens);
+        solutionKnown = false;
+        updateCells();
 
-        // Copy board to fixedBoard and remove random cells
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                fixedBoard[row][col] = board[row][col];
+        // Served straight from the solution cache if this puzzle was solved before
+        // A Check or Solve started meanwhile does not cancel it, so the solution still arrives
+        SolveService.Request request = SOLVE_SERVICE.solve(fixedBoard, SOLVE_TIMEOUT_MILLIS, null);
+        puzzleSolve = request;
+        request.whenDone(result -> Platform.runLater(() -> {
+            if (request != puzzleSolve) {
+                return; // Another puzzle has taken over
             }
-        }
-
-        while (numberOfCellsToRemove > 0) {
-            int row = rand.nextInt(9);
-            int col = rand.nextInt(9);
-            if (fixedBoard[row][col] != 0) {
-                fixedBoard[row][col] = 0; // Remove the number
-                numberOfCellsToRemove--;
+            puzzleSolve = null;
+            if (result.getStatus() == SolveService.Status.SOLVED) {
+                board.copyFrom(result.getSolution());
+                solutionKnown = true;
+                hints.setSolution(board);
+            } else if (result.getStatus() == SolveService.Status.UNSOLVABLE) {
+                statusLabel.setText("Puzzle cannot be solved.");
             }
-        }
+        }));
     }
 
     private void updateCells() {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (fixedBoard[row][col] != 0) {
-                    cells[row][col].setText(String.valueOf(fixedBoard[row][col]));
-                    cells[row][col].setEditable(false); // Make fixed cells non-editable
-                    cells[row][col].setStyle("-fx-background-color: lightgrey;"); // Optional styling for fixed cells
-                } else {
-                    cells[row][col].setText("");
-                    cells[row][col].setEditable(true); // Editable cells
-                    cells[row][col].setStyle("-fx-background-color: white;"); // Reset style for editable cells
-                }
-            }
+        for (int cell = 0; cell < 81; cell++) {
+            boardView.setGiven(cell, fixedBoard.get(cell) != 0); // Fixed cells are grey and cannot be edited
+            setEntry(cell, fixedBoard.get(cell), false);
         }
+        boardView.clearMarks();
+        hints.load(readEntries(), solutionKnown ? board : null);
+        history = new MoveHistory(fixedBoard);
     }
 
-    private void solvePuzzle() {
-        // Update the board with user inputs
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                String userInput = cells[row][col].getText();
-                if (!userInput.isEmpty()) {
-                    try {
-                        int value = Integer.parseInt(userInput);
-                        board[row][col] = value; // Use user's input for solving
-                    } catch (NumberFormatException e) {
-                        System.out.println("Invalid input detected at row " + row + ", col " + col);
-                    }
-                } else {
-                    board[row][col] = 0; // Treat empty cells as zero
+    // Points at the next logical step instead of filling in the whole board
+    private void showHint() {
+        // A wrong entry would send the deductions astray, so it comes first
+        if (solutionKnown) {
+            for (int cell = 0; cell < 81; cell++) {
+                int entry = conflicts.get(cell);
+                if (entry != 0 && fixedBoard.get(cell) == 0 && entry != board.get(cell)) {
+                    boardView.select(cell);
+                    statusLabel.setText("Hint: r" + (cell / 9 + 1) + "c" + (cell % 9 + 1) + " is not right.");
+                    return;
                 }
             }
         }
-
-        // Now solve the board
-        if (solveSudoku(board)) {
-            for (int row = 0; row < 9; row++) {
-                for (int col = 0; col < 9; col++) {
-                    if (fixedBoard[row][col] == 0) { // Update only editable cells
-                        cells[row][col].setText(String.valueOf(board[row][col])); // Update the cell with the solved value
-                    }
-                }
-            }
-        } else {
-            System.out.println("Puzzle cannot be solved.");
+        HintEngine.Hint hint = hints.next();
+        if (hint == null) {
+            statusLabel.setText(hints.isContradiction() ? "Some entries cannot be right." : "No hint available.");
+            return;
+        }
+        if (hint.isPlacement()) {
+            boardView.select(hint.getCell());
         }
+        statusLabel.setText("Hint: " + hint);
     }
 
+    private void solvePuzzle() {
+        // The solution is already at hand; just show it
+        if (solutionKnown) {
+            cancelPendingSolve();
+            statusLabel.setText("");
+            showSolution(board);
+            return;
+        }
 
+        // Entries that break the rules cannot be completed; no need to search
+        if (conflicts.hasConflicts()) {
+            statusLabel.setText("Puzzle cannot be solved.");
+            return;
+        }
 
-    private boolean solveSudoku(int[][] board) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (board[row][col] == 0) { // Find an empty cell
-                    for (int num = 1; num <= 9; num++) {
-                        if (isValidMove(board, row, col, num)) {
-                            board[row][col] = num; // Try this number
-                            if (solveSudoku(board)) {
-                                return true; // If solved, return true
-                            }
-                            board[row][col] = 0; // Reset on backtrack
-                        }
-                    }
-                    return false; // No valid number found
-                }
+        // Solve the user's entries in the background and fill in the cells when done
+        cancelPendingSolve();
+        statusLabel.setText("Solving...");
+        SolveService.Request request = SOLVE_SERVICE.solve(readEntries(), SOLVE_TIMEOUT_MILLIS,
+                nodes -> Platform.runLater(() -> statusLabel.setText("Solving... " + nodes + " positions tried")));
+        pendingSolve = request;
+        request.whenDone(result -> Platform.runLater(() -> {
+            if (request == pendingSolve) { // Ignore results of superseded requests
+                pendingSolve = null;
+                showSolution(result);
             }
+        }));
+    }
+
+    private void showSolution(SolveService.Result result) {
+        switch (result.getStatus()) {
+            case SOLVED:
+                statusLabel.setText("");
+                board.copyFrom(result.getSolution());
+                showSolution(board);
+                break;
+            case UNSOLVABLE:
+                statusLabel.setText("Puzzle cannot be solved.");
+                break;
+            case TIMED_OUT:
+                statusLabel.setText("Gave up after " + SOLVE_TIMEOUT_MILLIS / 1000 + " seconds.");
+                break;
+            case FAILED:
+                statusLabel.setText("Error: " + result.getError());
+                break;
+            default:
+                statusLabel.setText("");
+                break;
         }
-        return true; // Solved
     }
 
-    private boolean isValidMove(int[][] board, int row, int col, int num) {
-        // Check row and column
-        for (int x = 0; x < 9; x++) {
-            if (board[row][x] == num || board[x][col] == num) {
-                return false;
+    private void showSolution(SudokuBoard solution) {
+        for (int cell = 0; cell < 81; cell++) {
+            if (fixedBoard.get(cell) == 0) { // Update only editable cells
+                setEntry(cell, solution.get(cell), true); // Recorded, so a Solve can be undone
             }
         }
-        // Check 3x3 grid
-        int startRow = row - row % 3, startCol = col - col % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i + startRow][j + startCol] == num) {
-                    return false;
-                }
-            }
+    }
+
+    private void cancelPendingSolve() {
+        if (pendingSolve != null) {
+            pendingSolve.cancel();
+            pendingSolve = null;
+        }
+    }
+
+    // Drops every background solve, for when the puzzle on screen changes
+    private void cancelAllSolves() {
+        cancelPendingSolve();
+        puzzleTake = null; // A puzzle still coming from the pool is no longer wanted
+        if (puzzleSolve != null) {
+            puzzleSolve.cancel();
+            puzzleSolve = null;
         }
-        return true; // Valid move
     }
 
     public static void main(String[] args) {
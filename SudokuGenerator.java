@@ -1,67 +1,146 @@
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class SudokuGenerator {
     private static final int SIZE = 9;
-    private static final int SUBGRID_SIZE = 3;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int MAX_RATING_ATTEMPTS = 50; // puzzles tried per generatePuzzle(min, max)
+    private final BitmaskSolver solver = new BitmaskSolver();
+    private final LogicSolver logic = new LogicSolver();
+    private final SplittableRandom seeds = new SplittableRandom(); // source of per-puzzle seeds
+    private final SudokuBoard scratch = new SudokuBoard();
 
+    // Puzzle with the given number of clues (or as close as uniqueness allows) and exactly one solution
     public int[][] generateSudoku(int clues) {
-        int[][] board = new int[SIZE][SIZE];
-        fillBoard(board);
-        removeNumbers(board, SIZE * SIZE - clues);
+        return generate(clues).toArray();
+    }
+
+    // Same as generateSudoku, but returns the compact board without converting it
+    public SudokuBoard generate(int clues) {
+        return generate(clues, 0);
+    }
+
+    // Stops removing clues once the puzzle is down to the clue count or its difficulty
+    // score reaches targetScore (0 ignores the score)
+    public SudokuBoard generate(int clues, long targetScore) {
+        return generate(clues, targetScore, seeds.nextLong());
+    }
+
+    // Same as generate(int, long), but reproducible: a seed always gives the same puzzle
+    public SudokuBoard generate(int clues, long targetScore, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SudokuBoard board = new SudokuBoard();
+        fillBoard(board, random);
+        removeNumbers(board, clues, targetScore, random);
         return board;
     }
 
-    private void fillBoard(int[][] board) {
-        // Fill the Sudoku board using backtracking
-        solveSudoku(board);
+    // Like generate(int, long), but also keeps the completed grid the puzzle was dug from
+    public Puzzle generatePuzzle(int clues, long targetScore) {
+        SplittableRandom random = new SplittableRandom(seeds.nextLong());
+        SudokuBoard solution = new SudokuBoard();
+        fillBoard(solution, random);
+        SudokuBoard board = new SudokuBoard();
+        board.copyFrom(solution);
+        removeNumbers(board, clues, targetScore, random);
+        return new Puzzle(board, solution, logic.analyze(board).getDifficulty());
     }
 
-    private boolean solveSudoku(int[][] board) {
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                if (board[row][col] == 0) {
-                    for (int num = 1; num <= 9; num++) {
-                        if (isValid(board, row, col, num)) {
-                            board[row][col] = num;
-                            if (solveSudoku(board)) {
-                                return true;
-                            }
-                            board[row][col] = 0; // Backtrack
-                        }
-                    }
-                    return false;
-                }
+    // Puzzle whose logic rating lies between min and max. Digs as deep as uniqueness allows
+    // (only easy puzzles stop at the easy clue count) and retries until the rating fits; after
+    // MAX_RATING_ATTEMPTS tries the last puzzle is returned whatever its rating.
+    public Puzzle generatePuzzle(LogicSolver.Difficulty min, LogicSolver.Difficulty max) {
+        int clues = max == LogicSolver.Difficulty.EASY ? cluesFor("easy") : 0;
+        Puzzle puzzle = null;
+        for (int attempt = 0; attempt < MAX_RATING_ATTEMPTS; attempt++) {
+            puzzle = generatePuzzle(clues, 0);
+            if (puzzle.getDifficulty().compareTo(min) >= 0 && puzzle.getDifficulty().compareTo(max) <= 0) {
+                break;
             }
         }
-        return true; // Solved
+        return puzzle;
     }
 
-    private boolean isValid(int[][] board, int row, int col, int num) {
-        // Check row, column, and subgrid for validity
-        for (int x = 0; x < SIZE; x++) {
-            if (board[row][x] == num || board[x][col] == num) {
-                return false;
-            }
+    // How a human would find the puzzle, see LogicSolver
+    public LogicSolver.Result rate(SudokuBoard puzzle) {
+        return logic.analyze(puzzle);
+    }
+
+    // Clue count for the "easy", "medium" and "hard" levels (case-insensitive). The count says
+    // little about how hard a puzzle is; see difficultyFor for the rating a level should have.
+    public static int cluesFor(String difficultyLevel) {
+        switch (difficultyLevel.toLowerCase()) {
+            case "medium":
+                return 36;
+            case "hard":
+                return 27;
+            case "easy":
+            default:
+                return 45;
         }
-        int startRow = row - row % SUBGRID_SIZE, startCol = col - col % SUBGRID_SIZE;
-        for (int r = 0; r < SUBGRID_SIZE; r++) {
-            for (int d = 0; d < SUBGRID_SIZE; d++) {
-                if (board[r + startRow][d + startCol] == num) {
-                    return false;
-                }
-            }
+    }
+
+    // Lowest and highest rating for the "easy", "medium" and "hard" levels (case-insensitive).
+    // Puzzles that need guessing have no level of their own and count as hard.
+    public static LogicSolver.Difficulty[] difficultyFor(String difficultyLevel) {
+        switch (difficultyLevel.toLowerCase()) {
+            case "medium":
+                return new LogicSolver.Difficulty[] {LogicSolver.Difficulty.MEDIUM, LogicSolver.Difficulty.MEDIUM};
+            case "hard":
+                return new LogicSolver.Difficulty[] {LogicSolver.Difficulty.HARD, LogicSolver.Difficulty.EXPERT};
+            case "easy":
+            default:
+                return new LogicSolver.Difficulty[] {LogicSolver.Difficulty.EASY, LogicSolver.Difficulty.EASY};
         }
-        return true;
     }
 
-    private void removeNumbers(int[][] board, int numToRemove) {
-        Random rand = new Random();
-        while (numToRemove > 0) {
-            int row = rand.nextInt(SIZE);
-            int col = rand.nextInt(SIZE);
-            if (board[row][col] != 0) {
-                board[row][col] = 0; // Remove number
-                numToRemove--;
+    // Turns a solved grid into a unique puzzle in place, see generate(int, long)
+    public void makePuzzle(SudokuBoard board, int clues, long targetScore) {
+        removeNumbers(board, clues, targetScore, new SplittableRandom(seeds.nextLong()));
+    }
+
+    // Difficulty score: search nodes the solver needs, 1 when singles alone solve it
+    public long score(SudokuBoard puzzle) {
+        scratch.copyFrom(puzzle);
+        solver.solveBounded(scratch, Long.MAX_VALUE, null);
+        return solver.getNodeCount();
+    }
+
+    private void fillBoard(SudokuBoard board, SplittableRandom random) {
+        // Fill the Sudoku board with a random complete grid
+        GridGenerator.generate(random, board);
+    }
+
+    // Tries each filled cell once in random order and keeps a removal only if the puzzle
+    // still has a single solution
+    private void removeNumbers(SudokuBoard board, int clues, long targetScore, SplittableRandom random) {
+        int[] order = new int[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            order[i] = i;
+        }
+        for (int i = CELLS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        int remaining = board.filledCount();
+        for (int i = 0; i < CELLS && remaining > clues; i++) {
+            int cell = order[i];
+            int digit = board.get(cell);
+            if (digit == 0) {
+                continue;
+            }
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            board.set(row, col, 0); // Remove number
+            if (solver.hasSolutionWithout(board, cell, digit)) {
+                board.set(row, col, digit); // Another solution appeared, put it back
+                continue;
+            }
+            remaining--;
+            if (targetScore > 0 && score(board) >= targetScore) {
+                break;
             }
         }
     }
@@ -82,26 +82,37 @@ public class SudokuHomeScreen extends Application {
         TextArea customPuzzleInput = new TextArea();
         customPuzzleInput.setPromptText("Enter custom puzzle in a 9x9 format, using commas or spaces...");
 
+        Label errorLabel = new Label();
+        errorLabel.setStyle("-fx-font-size: 13px; -fx-text-fill: #c0392b;");
+        errorLabel.setWrapText(true);
+
         Button submitButton = createStyledButton("Submit", "#6FA3EF");
         submitButton.setOnAction(e -> {
             String input = customPuzzleInput.getText();
-            int[][] customBoard = parseCustomPuzzle(input);
+            int[][] customBoard;
+            try {
+                customBoard = parseCustomPuzzle(input);
+            } catch (IllegalArgumentException ex) {
+                errorLabel.setText(ex.getMessage());
+                return;
+            }
+            errorLabel.setText("");
             SudokuGUI sudokuGUI = new SudokuGUI(customBoard);
             Stage customGameStage = new Stage();
             sudokuGUI.start(customGameStage);
         });
 
-        customLayout.getChildren().addAll(customLabel, customPuzzleInput, submitButton);
+        customLayout.getChildren().addAll(customLabel, customPuzzleInput, errorLabel, submitButton);
 
         // Set up custom puzzle scene
         Scene customScene = new Scene(customLayout, 400, 300);
         primaryStage.setScene(customScene);
     }
 
+    // Accepts a 9x9 grid (commas, spaces or nothing between cells) or a single 81-character line;
+    // throws IllegalArgumentException saying where the input went wrong
     private int[][] parseCustomPuzzle(String input) {
-        int[][] board = new int[9][9];
-        // Parsing logic to convert the input to a 2D array
-        return board;
+        return PuzzleParser.parse(input).toArray();
     }
 
     public static void main(String[] args) {
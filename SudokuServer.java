@@ -0,0 +1,323 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Small self-contained HTTP front end for the solver, the generator and the rater, on the JDK's
+// built-in HttpServer. Bodies and answers are plain text in the SudokuBatch line format: a
+// puzzle is 81 characters ('1'-'9', '0' or '.'), an answer is 81 digits or a short message.
+// /solve and /rate also take any layout PuzzleParser reads, such as a 9x9 grid.
+//
+//   POST /solve           one puzzle -> solution (200), "no solution" (422), "invalid input: "
+//                         and where (400) or "gave up" (422, past the node budget)
+//   POST /solve/batch     one puzzle per line -> one answer per line, in order (200)
+//   GET  /generate?difficulty=easy|medium|hard&count=n
+//                         -> one line per puzzle: givens, solution, rating, space separated
+//   POST /rate            one puzzle -> rating, hardest technique and technique counts (200)
+//   GET  /stats           queue and solver counters
+//
+// Solves go through a SolveBatcher, which micro-batches them onto a ForkJoinPool; when its
+// bounded queue is full the request is answered 503 with Retry-After straight away instead
+// of piling up. Generation draws on a PuzzlePool kept topped up in the background. Requests
+// are handled on virtual threads where the JVM has them (Java 21 and later) and on a cached
+// pool otherwise; either way a handler only blocks while waiting for its own admitted work.
+//
+// Usage: java SudokuServer [--port N] [--threads N] [--queue N]
+// Binds to 127.0.0.1 only; --port 0 picks a free port, which is printed on startup.
+public class SudokuServer {
+    static final int MAX_BODY_BYTES = 1 << 20;
+    static final int MAX_GENERATE = 100;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final SolveBatcher batcher;
+    private final PuzzlePool pool = new PuzzlePool();
+    private final ThreadLocal<LogicSolver> raters = ThreadLocal.withInitial(LogicSolver::new);
+
+    public SudokuServer(int port, int threads, int queueCapacity) throws IOException {
+        this.batcher = new SolveBatcher(threads, queueCapacity);
+        this.handlers = handlerExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(handlers);
+        server.createContext("/solve", exchange -> handle(exchange, "POST", this::solve));
+        server.createContext("/solve/batch", exchange -> handle(exchange, "POST", this::solveBatch));
+        server.createContext("/generate", exchange -> handle(exchange, "GET", this::generate));
+        server.createContext("/rate", exchange -> handle(exchange, "POST", this::rate));
+        server.createContext("/stats", exchange -> handle(exchange, "GET", this::stats));
+    }
+
+    public void start() {
+        pool.prefill("easy", "medium", "hard");
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        batcher.shutdown();
+        pool.shutdown();
+        handlers.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queue = SolveBatcher.DEFAULT_CAPACITY;
+        for (int arg = 0; arg < args.length; arg++) {
+            switch (args[arg]) {
+                case "--port":
+                    port = Integer.parseInt(args[++arg]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++arg]);
+                    break;
+                case "--queue":
+                    queue = Integer.parseInt(args[++arg]);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[arg]);
+                    return;
+            }
+        }
+        SudokuServer server = new SudokuServer(port, threads, queue);
+        server.start();
+        System.err.println("Listening on http://127.0.0.1:" + server.getPort() + "/");
+    }
+
+    // What a handler answers with
+    static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    interface Handler {
+        Response handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    private static void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        Response response;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                response = new Response(405, "use " + method);
+            } else {
+                response = handler.handle(exchange);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = new Response(503, "shutting down");
+        } catch (CancellationException e) {
+            response = new Response(503, "shutting down"); // The batcher dropped the work on shutdown
+        } catch (IOException | RuntimeException e) {
+            response = new Response(500, "error: " + e.getMessage());
+        }
+        if (response.status == 503) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+        }
+        byte[] bytes = (response.body + "\n").getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Response solve(HttpExchange exchange) throws IOException, InterruptedException {
+        byte[] body = readBody(exchange);
+        if (body == null) {
+            return new Response(413, "body too large");
+        }
+        SudokuBoard board;
+        try {
+            board = PuzzleParser.parse(body, 0, body.length);
+        } catch (IllegalArgumentException e) {
+            return new Response(400, "invalid input: " + e.getMessage());
+        }
+        CompletableFuture<SolveBatcher.Result> future = batcher.submit(board);
+        if (future == null) {
+            return new Response(503, "busy");
+        }
+        SolveBatcher.Result result = await(future);
+        switch (result.getOutcome()) {
+            case SOLVED:
+                return new Response(200, result.getSolution().toString());
+            case UNSOLVABLE:
+                return new Response(422, "no solution");
+            default:
+                return new Response(422, "gave up");
+        }
+    }
+
+    // Malformed lines are answered "invalid input" in place and never reach the batcher
+    private Response solveBatch(HttpExchange exchange) throws IOException, InterruptedException {
+        byte[] body = readBody(exchange);
+        if (body == null) {
+            return new Response(413, "body too large");
+        }
+        List<SudokuBoard> boards = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>(); // index into boards per line, -1 if invalid
+        for (int start = 0; start < body.length; ) {
+            int end = start;
+            while (end < body.length && body[end] != '\n') {
+                end++;
+            }
+            int length = end - start;
+            if (length > 0 && body[end - 1] == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                SudokuBoard board = new SudokuBoard();
+                if (SudokuBatch.parse(body, start, length, board)) {
+                    slots.add(boards.size());
+                    boards.add(board);
+                } else {
+                    slots.add(-1);
+                }
+            }
+            start = end + 1;
+        }
+        if (boards.size() > batcher.getCapacity()) {
+            return new Response(413, "at most " + batcher.getCapacity() + " puzzles per batch");
+        }
+        List<CompletableFuture<SolveBatcher.Result>> futures = batcher.submitAll(boards);
+        if (futures == null) {
+            return new Response(503, "busy");
+        }
+        StringBuilder sb = new StringBuilder(slots.size() * (SudokuBoard.CELLS + 1));
+        for (int slot : slots) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            if (slot < 0) {
+                sb.append("invalid input");
+                continue;
+            }
+            SolveBatcher.Result result = await(futures.get(slot));
+            sb.append(result.getOutcome() == SolveBatcher.Outcome.SOLVED ? result.getSolution().toString()
+                    : result.getOutcome() == SolveBatcher.Outcome.UNSOLVABLE ? "no solution" : "gave up");
+        }
+        return new Response(200, sb.toString());
+    }
+
+    private Response generate(HttpExchange exchange) {
+        String difficulty = query(exchange.getRequestURI(), "difficulty", "easy");
+        if (!difficulty.equals("easy") && !difficulty.equals("medium") && !difficulty.equals("hard")) {
+            return new Response(400, "difficulty must be easy, medium or hard");
+        }
+        int count;
+        try {
+            count = Integer.parseInt(query(exchange.getRequestURI(), "count", "1"));
+        } catch (NumberFormatException e) {
+            return new Response(400, "count must be a number");
+        }
+        if (count < 1 || count > MAX_GENERATE) {
+            return new Response(400, "count must be between 1 and " + MAX_GENERATE);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            Puzzle puzzle = pool.take(difficulty);
+            if (i > 0) {
+                sb.append('\n');
+            }
+            sb.append(puzzle.getGivens()).append(' ').append(puzzle.getSolution()).append(' ')
+                    .append(puzzle.getDifficulty());
+        }
+        return new Response(200, sb.toString());
+    }
+
+    private Response rate(HttpExchange exchange) throws IOException {
+        byte[] body = readBody(exchange);
+        if (body == null) {
+            return new Response(413, "body too large");
+        }
+        SudokuBoard board;
+        try {
+            board = PuzzleParser.parse(body, 0, body.length);
+        } catch (IllegalArgumentException e) {
+            return new Response(400, "invalid input: " + e.getMessage());
+        }
+        LogicSolver.Result result = raters.get().analyze(board);
+        if (!result.isSolved()) {
+            return new Response(422, "no solution");
+        }
+        return new Response(200, result.toString());
+    }
+
+    private Response stats(HttpExchange exchange) {
+        return new Response(200, "inFlight=" + batcher.inFlight() + " capacity=" + batcher.getCapacity()
+                + " accepted=" + batcher.getAccepted() + " rejected=" + batcher.getRejected()
+                + " batches=" + batcher.getBatches() + " poolHits=" + pool.getHits()
+                + " poolMisses=" + pool.getMisses() + " cache=" + SolutionCache.shared());
+    }
+
+    private static SolveBatcher.Result await(CompletableFuture<SolveBatcher.Result> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // The request body, or null if it is larger than MAX_BODY_BYTES
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                if (out.size() + n > MAX_BODY_BYTES) {
+                    return null;
+                }
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static String query(URI uri, String name, String fallback) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return fallback;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return pair.substring(equals + 1).toLowerCase();
+            }
+        }
+        return fallback;
+    }
+
+    // Virtual threads when the JVM has them, looked up reflectively so this still runs on 17
+    private static ExecutorService handlerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "sudoku-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,24 @@
+// Common contract for the solving backends shared by Sudoku, SudokuGenerator and SudokuGUI
+public interface SudokuSolver {
+    // Solves the board in place, filling its empty cells with place() so the caller can undo
+    // them; returns false and leaves the board untouched if it has no solution
+    boolean solve(SudokuBoard board);
+
+    // Counts solutions without touching the board, stopping once the limit is reached
+    // (a limit of 2 is enough to prove a puzzle is unique)
+    int countSolutions(SudokuBoard board, int limit);
+
+    // Convenience overload for callers that still hold a 9x9 array
+    default boolean solve(int[][] board) {
+        SudokuBoard copy = SudokuBoard.of(board);
+        if (!solve(copy)) {
+            return false;
+        }
+        copy.copyTo(board);
+        return true;
+    }
+
+    default int countSolutions(int[][] board, int limit) {
+        return countSolutions(SudokuBoard.of(board), limit);
+    }
+}
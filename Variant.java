@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// The rules of a 9x9 Sudoku variant as a list of constraint units that VariantSolver iterates
+// over. Classic Sudoku is rows, columns and boxes; X-Sudoku adds the two diagonals; Jigsaw swaps
+// the boxes for irregular regions; Killer adds sum cages on top of the classic units. Further
+// variants are just other units. Immutable once built, so one Variant can be shared by any
+// number of solvers and threads.
+public final class Variant {
+    private final String name;
+    private final List<ConstraintUnit> units;
+    final int[][] unitsOf; // [cell] -> indexes of the units containing the cell
+
+    private Variant(String name, List<ConstraintUnit> units) {
+        this.name = name;
+        this.units = Collections.unmodifiableList(new ArrayList<>(units));
+        int[] counts = new int[SudokuBoard.CELLS];
+        for (ConstraintUnit unit : units) {
+            boolean[] seen = new boolean[SudokuBoard.CELLS];
+            for (int cell : unit.cells()) {
+                if (seen[cell]) {
+                    throw new IllegalArgumentException(unit + " lists cell " + cell + " twice");
+                }
+                seen[cell] = true;
+                counts[cell]++;
+            }
+        }
+        unitsOf = new int[SudokuBoard.CELLS][];
+        for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+            unitsOf[cell] = new int[counts[cell]];
+            counts[cell] = 0;
+        }
+        for (int u = 0; u < units.size(); u++) {
+            for (int cell : units.get(u).cells()) {
+                unitsOf[cell][counts[cell]++] = u;
+            }
+        }
+    }
+
+    public static Variant classic() {
+        return new Variant("Classic", classicUnits(true));
+    }
+
+    // X-Sudoku: both long diagonals hold every digit once as well
+    public static Variant diagonal() {
+        List<ConstraintUnit> units = classicUnits(true);
+        units.add(ConstraintUnit.mainDiagonal());
+        units.add(ConstraintUnit.antiDiagonal());
+        return new Variant("Diagonal", units);
+    }
+
+    // Jigsaw: regions[cell] (0-8) names the irregular region that replaces the box
+    public static Variant jigsaw(int[] regions) {
+        if (regions.length != SudokuBoard.CELLS) {
+            throw new IllegalArgumentException("Expected " + SudokuBoard.CELLS + " region numbers, got " + regions.length);
+        }
+        int[][] cells = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        int[] filled = new int[SudokuBoard.SIZE];
+        for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+            int region = regions[cell];
+            if (region < 0 || region >= SudokuBoard.SIZE || filled[region] == SudokuBoard.SIZE) {
+                throw new IllegalArgumentException("Region " + region + " at cell " + cell
+                        + " is out of range or has more than " + SudokuBoard.SIZE + " cells");
+            }
+            cells[region][filled[region]++] = cell;
+        }
+        List<ConstraintUnit> units = classicUnits(false);
+        for (int region = 0; region < SudokuBoard.SIZE; region++) {
+            units.add(ConstraintUnit.region("region " + (region + 1), cells[region]));
+        }
+        return new Variant("Jigsaw", units);
+    }
+
+    // Jigsaw from 81 region digits 1-9, row by row; whitespace is skipped
+    public static Variant jigsaw(String layout) {
+        String compact = layout.replaceAll("\\s", "");
+        if (compact.length() != SudokuBoard.CELLS) {
+            throw new IllegalArgumentException("Expected " + SudokuBoard.CELLS + " region digits, got " + compact.length());
+        }
+        int[] regions = new int[SudokuBoard.CELLS];
+        for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+            char c = compact.charAt(cell);
+            if (c < '1' || c > '9') {
+                throw new IllegalArgumentException("Bad region '" + c + "' at cell " + cell);
+            }
+            regions[cell] = c - '1';
+        }
+        return jigsaw(regions);
+    }
+
+    // Killer: classic rules plus cages, each a unit made with ConstraintUnit.cage()
+    public static Variant killer(List<ConstraintUnit> cages) {
+        List<ConstraintUnit> units = classicUnits(true);
+        for (ConstraintUnit cage : cages) {
+            if (cage.getSum() == 0) {
+                throw new IllegalArgumentException(cage + " has no sum");
+            }
+            units.add(cage);
+        }
+        return new Variant("Killer", units);
+    }
+
+    // Any other rule set
+    public static Variant of(String name, List<ConstraintUnit> units) {
+        return new Variant(name, units);
+    }
+
+    private static List<ConstraintUnit> classicUnits(boolean boxes) {
+        List<ConstraintUnit> units = new ArrayList<>(3 * SudokuBoard.SIZE);
+        for (int i = 0; i < SudokuBoard.SIZE; i++) {
+            units.add(ConstraintUnit.row(i));
+            units.add(ConstraintUnit.column(i));
+            if (boxes) {
+                units.add(ConstraintUnit.box(i));
+            }
+        }
+        return units;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ConstraintUnit> getUnits() {
+        return units;
+    }
+
+    // True if the digit can go into the empty cell without breaking a rule of this variant;
+    // the variant-aware version of the GUI's move check
+    public boolean canPlace(SudokuBoard board, int cell, int digit) {
+        if (!board.isEmpty(cell)) {
+            return false;
+        }
+        int bit = 1 << (digit - 1);
+        for (int u : unitsOf[cell]) {
+            if ((units.get(u).allowed(usedIn(board, units.get(u))) & bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // True if the filled cells break no rule of this variant
+    public boolean isConsistent(SudokuBoard board) {
+        for (ConstraintUnit unit : units) {
+            if (!unit.isSatisfiedBy(board)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isSolved(SudokuBoard board) {
+        return board.filledCount() == SudokuBoard.CELLS && isConsistent(board);
+    }
+
+    static int usedIn(SudokuBoard board, ConstraintUnit unit) {
+        int used = 0;
+        for (int cell : unit.cells()) {
+            int digit = board.get(cell);
+            if (digit != 0) {
+                used |= 1 << (digit - 1);
+            }
+        }
+        return used;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + units.size() + " units)";
+    }
+}
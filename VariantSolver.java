@@ -0,0 +1,215 @@
+import java.util.Arrays;
+
+// Backtracking solver for any Variant, the rule-set-driven counterpart of BitmaskSolver. Instead
+// of fixed row, column and box masks it keeps one used-digit mask per constraint unit of the
+// variant, and a cell's candidates are the AND of what each of its units still allows (for a
+// cage, the unit's combination table does the sum reasoning). Propagation places naked singles
+// and hidden singles over the units that must hold every digit, then the search branches on the
+// cell with the fewest candidates; placements go on a trail so backtracking just empties them.
+//
+// Classic puzzles keep going through BitmaskSolver, which is specialized for the fixed units,
+// so adding a variant costs classic solving nothing.
+//
+// Not thread-safe; use one instance per thread. The Variant itself can be shared.
+public class VariantSolver implements SudokuSolver {
+    private static final int CELLS = SudokuBoard.CELLS;
+    private static final int ALL = SudokuBoard.ALL_DIGITS;
+
+    private final Variant variant;
+    private final ConstraintUnit[] units;
+    private final int[][] unitsOf;
+    private final int[][] unitCells;
+    private final int[] complete; // indexes of the units that hold every digit
+
+    private final int[] values = new int[CELLS];
+    private final int[] used; // [unit] digits placed in it
+    private final int[] trail = new int[CELLS];
+    private int trailSize;
+    private final int[] cache = new int[CELLS]; // candidates as of the start of a propagation round
+
+    private int limit;
+    private int found;
+    private long nodes;
+    private SudokuBoard solution; // board to copy the first solution into, if wanted
+
+    public VariantSolver(Variant variant) {
+        this.variant = variant;
+        this.units = variant.getUnits().toArray(new ConstraintUnit[0]);
+        this.unitsOf = variant.unitsOf;
+        this.unitCells = new int[units.length][];
+        int completeCount = 0;
+        for (int u = 0; u < units.length; u++) {
+            unitCells[u] = units[u].cells();
+            completeCount += units[u].isComplete() ? 1 : 0;
+        }
+        this.complete = new int[completeCount];
+        for (int u = 0, i = 0; u < units.length; u++) {
+            if (units[u].isComplete()) {
+                complete[i++] = u;
+            }
+        }
+        this.used = new int[units.length];
+    }
+
+    public Variant getVariant() {
+        return variant;
+    }
+
+    @Override
+    public boolean solve(SudokuBoard board) {
+        if (!load(board)) {
+            return false;
+        }
+        this.limit = 1;
+        this.solution = board;
+        try {
+            search();
+        } finally {
+            this.solution = null;
+        }
+        return found > 0;
+    }
+
+    @Override
+    public int countSolutions(SudokuBoard board, int limit) {
+        if (limit <= 0 || !load(board)) {
+            return 0;
+        }
+        this.limit = limit;
+        search();
+        return found;
+    }
+
+    // Search nodes visited by the last solve or count
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    // Copies the givens in, checking them against every unit; false if they already break a rule
+    private boolean load(SudokuBoard board) {
+        found = 0;
+        nodes = 0;
+        trailSize = 0;
+        Arrays.fill(used, 0);
+        Arrays.fill(values, 0);
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = board.get(cell);
+            if (digit != 0) {
+                if ((candidates(cell) & 1 << (digit - 1)) == 0) {
+                    return false;
+                }
+                set(cell, digit);
+            }
+        }
+        trailSize = 0; // givens are never undone
+        return true;
+    }
+
+    private void search() {
+        nodes++;
+        int mark = trailSize;
+        int cell = propagateAndPick();
+        if (cell == -1) {
+            if (++found == 1 && solution != null) {
+                for (int c = 0; c < CELLS; c++) {
+                    if (solution.isEmpty(c)) {
+                        solution.place(c, values[c]);
+                    }
+                }
+            }
+        } else if (cell >= 0) {
+            for (int bits = cache[cell]; bits != 0 && found < limit; bits &= bits - 1) {
+                set(cell, Integer.numberOfTrailingZeros(bits) + 1);
+                search();
+                undo(trailSize - 1);
+            }
+        }
+        undo(mark);
+    }
+
+    // Places naked and hidden singles until none are left, then returns the empty cell with the
+    // fewest candidates, -1 if the board is full, or -2 on a contradiction. As in GeneralSolver,
+    // the cache is read once per round and every placement is checked against the live masks.
+    private int propagateAndPick() {
+        boolean changed = true;
+        int best = -1;
+        while (changed) {
+            changed = false;
+            best = -1;
+            int bestCount = Integer.MAX_VALUE;
+            for (int cell = 0; cell < CELLS; cell++) {
+                if (values[cell] != 0) {
+                    continue;
+                }
+                int candidates = candidates(cell);
+                int count = Integer.bitCount(candidates);
+                if (count == 0) {
+                    return -2;
+                }
+                cache[cell] = candidates;
+                if (count == 1) {
+                    set(cell, Integer.numberOfTrailingZeros(candidates) + 1);
+                    changed = true;
+                } else if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                }
+            }
+            for (int u : complete) {
+                int once = 0;
+                int twice = 0;
+                for (int cell : unitCells[u]) {
+                    if (values[cell] == 0) {
+                        twice |= once & cache[cell];
+                        once |= cache[cell];
+                    }
+                }
+                if ((once | used[u]) != ALL) {
+                    return -2; // A digit has nowhere to go
+                }
+                for (int hidden = once & ~twice & ~used[u]; hidden != 0; hidden &= hidden - 1) {
+                    int bit = hidden & -hidden;
+                    for (int cell : unitCells[u]) {
+                        if (values[cell] == 0 && (cache[cell] & bit) != 0) {
+                            if ((candidates(cell) & bit) == 0) {
+                                return -2; // Its only place was just taken
+                            }
+                            set(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int candidates(int cell) {
+        int candidates = ALL;
+        for (int u : unitsOf[cell]) {
+            candidates &= units[u].allowed(used[u]);
+        }
+        return candidates;
+    }
+
+    private void set(int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        values[cell] = digit;
+        for (int u : unitsOf[cell]) {
+            used[u] |= bit;
+        }
+        trail[trailSize++] = cell;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int cell = trail[--trailSize];
+            int bit = ~(1 << (values[cell] - 1));
+            values[cell] = 0;
+            for (int u : unitsOf[cell]) {
+                used[u] &= bit;
+            }
+        }
+    }
+}
@@ -0,0 +1,465 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+// The work the JMH benchmarks in package 'benchmarks' measure, over the fixed BenchmarkCorpus
+// sets. Each case is an operation on its i-th input that returns something derived from the
+// result, for JMH to consume. The cases live here in the default package, next to the code they
+// call, because JMH only runs benchmarks in a named package and a named package cannot import
+// from the default one; the benchmarks look them up by name through Workload.
+//
+// Only the fixtures of the case asked for are built, with the same seeds every run.
+public final class BenchmarkCases {
+    private static final String JIGSAW_LAYOUT = // region of each cell, for the variant cases
+            "111552333111522333141522633441552636447552666447522696477788896477888899778899999";
+
+    private BenchmarkCases() {
+    }
+
+    // The case for a name such as "solve.dlx/hard": an operation, then after the slash the
+    // corpus (easy, hard, 17clue, adversarial) or variant (diagonal, jigsaw, killer) it runs on
+    public static IntUnaryOperator create(String name) throws IOException {
+        int slash = name.indexOf('/');
+        String operation = slash < 0 ? name : name.substring(0, slash);
+        String set = slash < 0 ? "" : name.substring(slash + 1);
+        switch (operation) {
+            case "solve.bitmask":
+                return solve(new BitmaskSolver(), corpus(set));
+            case "unique.bitmask":
+                return unique(new BitmaskSolver(), corpus(set));
+            case "solve.dlx":
+                return solve(new DancingLinksSolver(), corpus(set));
+            case "unique.dlx":
+                return unique(new DancingLinksSolver(), corpus(set));
+            case "solve.variant":
+                return variant(set, true);
+            case "unique.variant":
+                return variant(set, false);
+            case "solve.general":
+                return solveGeneral(general(corpus(set)), new GeneralBoard(3));
+            case "unique.general": {
+                GeneralBoard[] boards = general(corpus(set));
+                GeneralSolver solver = new GeneralSolver();
+                return i -> solver.countSolutions(boards[i % boards.length], 2);
+            }
+            case "solve.parallel": {
+                SudokuBoard[] puzzles = corpus(set);
+                ParallelSearchSolver parallel = new ParallelSearchSolver();
+                SudokuBoard work = new SudokuBoard();
+                return i -> {
+                    work.copyFrom(puzzles[i % puzzles.length]);
+                    return parallel.solve(work) ? 1 : 0;
+                };
+            }
+            case "rate.logic": {
+                SudokuBoard[] puzzles = corpus(set);
+                LogicSolver logic = new LogicSolver();
+                return i -> logic.analyze(puzzles[i % puzzles.length]).getDifficulty().ordinal();
+            }
+            case "hint.walk":
+                return hintWalk(corpus(set));
+            case "canonical.hash": {
+                SudokuBoard[] puzzles = corpus(set);
+                Canonicalizer canonicalizer = new Canonicalizer();
+                return i -> (int) canonicalizer.canonicalize(puzzles[i % puzzles.length]);
+            }
+            case "validate.isConsistent": {
+                SudokuBoard[] puzzles = corpus(set);
+                return i -> puzzles[i % puzzles.length].isConsistent() ? 1 : 0;
+            }
+            case "validate.candidates":
+                return candidates(corpus(set));
+            case "generate.grid": {
+                SplittableRandom random = new SplittableRandom(1);
+                SudokuBoard grid = new SudokuBoard();
+                return i -> {
+                    GridGenerator.generate(random, grid);
+                    return grid.get(i % SudokuBoard.CELLS);
+                };
+            }
+            case "generate.clues": {
+                int clues = Integer.parseInt(set);
+                SudokuGenerator generator = new SudokuGenerator();
+                return i -> generator.generate(clues).get(i % SudokuBoard.CELLS);
+            }
+            case "generate.general": {
+                int box = box(set);
+                int cells = box * box * box * box;
+                GeneralGenerator generator = new GeneralGenerator();
+                return i -> generator.generateGrid(box, i).get(i % cells);
+            }
+            case "solve.generated": {
+                int box = box(set);
+                GeneralGenerator generator = new GeneralGenerator();
+                GeneralBoard[] puzzles = new GeneralBoard[4];
+                for (int i = 0; i < puzzles.length; i++) {
+                    puzzles[i] = generator.generate(box, 0, i);
+                }
+                return solveGeneral(puzzles, new GeneralBoard(box));
+            }
+            default:
+                if (operation.startsWith("archive.")) {
+                    return archive(operation);
+                }
+                if (operation.startsWith("parse.") || operation.startsWith("serialize.")) {
+                    return text(operation);
+                }
+                if (operation.startsWith("render.")) {
+                    return render(operation);
+                }
+                throw new IllegalArgumentException("Unknown benchmark case " + name);
+        }
+    }
+
+    private static SudokuBoard[] corpus(String set) {
+        switch (set) {
+            case "easy":
+                return BenchmarkCorpus.boards(BenchmarkCorpus.EASY);
+            case "hard":
+                return BenchmarkCorpus.boards(BenchmarkCorpus.HARD);
+            case "17clue":
+                return BenchmarkCorpus.boards(BenchmarkCorpus.SEVENTEEN_CLUE);
+            case "adversarial":
+                return BenchmarkCorpus.boards(BenchmarkCorpus.ADVERSARIAL);
+            default:
+                throw new IllegalArgumentException("Unknown corpus " + set);
+        }
+    }
+
+    // Box size for a side of 16 or 25
+    private static int box(String side) {
+        int box = (int) Math.round(Math.sqrt(Integer.parseInt(side)));
+        if (box * box != Integer.parseInt(side)) {
+            throw new IllegalArgumentException("Side " + side + " is not a square");
+        }
+        return box;
+    }
+
+    private static IntUnaryOperator solve(SudokuSolver solver, SudokuBoard[] puzzles) {
+        SudokuBoard work = new SudokuBoard();
+        return i -> {
+            work.copyFrom(puzzles[i % puzzles.length]);
+            return solver.solve(work) ? work.get(i % SudokuBoard.CELLS) : -1;
+        };
+    }
+
+    private static IntUnaryOperator unique(SudokuSolver solver, SudokuBoard[] puzzles) {
+        return i -> solver.countSolutions(puzzles[i % puzzles.length], 2);
+    }
+
+    // The general any-size engine, on the 9×9 corpora to compare it with the 9×9 solvers
+    private static GeneralBoard[] general(SudokuBoard[] puzzles) {
+        GeneralBoard[] boards = new GeneralBoard[puzzles.length];
+        for (int i = 0; i < puzzles.length; i++) {
+            boards[i] = GeneralBoard.of(puzzles[i].toArray());
+        }
+        return boards;
+    }
+
+    private static IntUnaryOperator solveGeneral(GeneralBoard[] puzzles, GeneralBoard work) {
+        GeneralSolver solver = new GeneralSolver();
+        int cells = work.getCellCount();
+        return i -> {
+            work.copyFrom(puzzles[i % puzzles.length]);
+            return solver.solve(work) ? work.get(i % cells) : -1;
+        };
+    }
+
+    // Every hint a player could ask for in a row, entering each placement
+    private static IntUnaryOperator hintWalk(SudokuBoard[] puzzles) {
+        HintEngine hints = new HintEngine();
+        return i -> {
+            hints.load(puzzles[i % puzzles.length], null);
+            int count = 0;
+            for (HintEngine.Hint hint; (hint = hints.next()) != null; count++) {
+                if (hint.isPlacement()) {
+                    hints.set(hint.getCell(), hint.getDigit());
+                }
+            }
+            return count;
+        };
+    }
+
+    private static IntUnaryOperator candidates(SudokuBoard[] puzzles) {
+        SudokuBoard work = new SudokuBoard();
+        return i -> {
+            work.copyFrom(puzzles[i % puzzles.length]);
+            int total = 0;
+            for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+                if (work.isEmpty(cell)) {
+                    total += Integer.bitCount(work.candidates(cell));
+                }
+            }
+            return total;
+        };
+    }
+
+    // Variant rule sets on puzzles dug out of their own grids; on a corpus name, the classic
+    // rules through the variant engine
+    private static IntUnaryOperator variant(String set, boolean solve) {
+        Variant variant;
+        switch (set) {
+            case "diagonal":
+                variant = Variant.diagonal();
+                break;
+            case "jigsaw":
+                variant = Variant.jigsaw(JIGSAW_LAYOUT);
+                break;
+            case "killer":
+                variant = killer(new SplittableRandom(7));
+                break;
+            default:
+                VariantSolver classic = new VariantSolver(Variant.classic());
+                return solve ? solve(classic, corpus(set)) : unique(classic, corpus(set));
+        }
+        VariantSolver solver = new VariantSolver(variant);
+        SudokuBoard[] puzzles = new SudokuBoard[8];
+        for (int i = 0; i < puzzles.length; i++) {
+            puzzles[i] = variantPuzzle(solver, new SplittableRandom(i));
+        }
+        return solve ? solve(solver, puzzles) : unique(solver, puzzles);
+    }
+
+    // Killer rules with two-cell cages over a random grid: pairs across each row, and the last
+    // column paired down the rows
+    private static Variant killer(SplittableRandom random) {
+        SudokuBoard grid = new SudokuBoard();
+        GridGenerator.generate(random, grid);
+        List<ConstraintUnit> cages = new ArrayList<>();
+        for (int row = 0; row < SudokuBoard.SIZE; row++) {
+            for (int col = 0; col + 1 < SudokuBoard.SIZE; col += 2) {
+                int cell = row * SudokuBoard.SIZE + col;
+                cages.add(ConstraintUnit.cage(grid.get(cell) + grid.get(cell + 1), cell, cell + 1));
+            }
+        }
+        for (int row = 0; row + 1 < SudokuBoard.SIZE; row += 2) {
+            int cell = row * SudokuBoard.SIZE + SudokuBoard.SIZE - 1;
+            cages.add(ConstraintUnit.cage(grid.get(cell) + grid.get(cell + SudokuBoard.SIZE), cell, cell + SudokuBoard.SIZE));
+        }
+        return Variant.killer(cages);
+    }
+
+    // Solves the variant from an empty board, then removes givens in random order while the
+    // puzzle stays unique
+    private static SudokuBoard variantPuzzle(VariantSolver solver, SplittableRandom random) {
+        SudokuBoard puzzle = new SudokuBoard();
+        solver.solve(puzzle);
+        int[] order = new int[SudokuBoard.CELLS];
+        for (int i = 0; i < order.length; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        for (int cell : order) {
+            int row = cell / SudokuBoard.SIZE;
+            int col = cell % SudokuBoard.SIZE;
+            int digit = puzzle.get(cell);
+            puzzle.set(row, col, 0);
+            if (solver.countSolutions(puzzle, 2) != 1) {
+                puzzle.set(row, col, digit);
+            }
+        }
+        return puzzle;
+    }
+
+    // Reads from a temporary archive holding every corpus puzzle many times over
+    private static IntUnaryOperator archive(String operation) throws IOException {
+        Path file = Files.createTempFile("sudoku-benchmark", ".sdka");
+        file.toFile().deleteOnExit();
+        List<SudokuBoard> puzzles = new ArrayList<>();
+        for (String set : new String[] {"easy", "hard", "17clue", "adversarial"}) {
+            puzzles.addAll(Arrays.asList(corpus(set)));
+        }
+        try (PuzzleArchive.Writer writer = PuzzleArchive.create(file, true, true)) {
+            for (int i = 0; i < 1 << 16; i++) {
+                writer.append(puzzles.get(i % puzzles.size()), null, LogicSolver.Difficulty.EASY);
+            }
+        }
+        PuzzleArchive archive = PuzzleArchive.open(file);
+        long size = archive.size();
+        switch (operation) {
+            case "archive.readBoard": {
+                SudokuBoard board = new SudokuBoard();
+                return i -> {
+                    archive.readGivens(i % size, board);
+                    return board.get(i % SudokuBoard.CELLS);
+                };
+            }
+            case "archive.readBytes": {
+                byte[] cells = new byte[SudokuBoard.CELLS];
+                return i -> {
+                    archive.readGivens(i % size, cells);
+                    return cells[i % SudokuBoard.CELLS];
+                };
+            }
+            case "archive.getCell":
+                return i -> archive.get(i % size, i % SudokuBoard.CELLS);
+            default:
+                throw new IllegalArgumentException("Unknown benchmark case " + operation);
+        }
+    }
+
+    // Parsing and writing text: the hard corpus as one puzzle per line and as 9x9 grids
+    private static IntUnaryOperator text(String operation) {
+        SudokuBoard[] puzzles = corpus("hard");
+        PuzzleSerializer out = new PuzzleSerializer();
+        switch (operation) {
+            case "serialize.line":
+                return i -> {
+                    out.reset();
+                    return out.appendLine(puzzles[i % puzzles.length]).length();
+                };
+            case "serialize.grid":
+                return i -> {
+                    out.reset();
+                    return out.appendGrid(puzzles[i % puzzles.length], '.').length();
+                };
+            case "parse.line":
+            case "parse.grid":
+                for (SudokuBoard puzzle : puzzles) {
+                    if (operation.equals("parse.line")) {
+                        out.appendLine(puzzle, '.');
+                    } else {
+                        out.appendGrid(puzzle, '0');
+                    }
+                }
+                byte[] bytes = out.toByteArray();
+                PuzzleParser parser = new PuzzleParser();
+                SudokuBoard board = new SudokuBoard();
+                return i -> {
+                    if (i % puzzles.length == 0) {
+                        parser.reset(bytes, 0, bytes.length);
+                    }
+                    return parser.next(board);
+                };
+            default:
+                throw new IllegalArgumentException("Unknown benchmark case " + operation);
+        }
+    }
+
+    // The board renderer drawing on a Java2D image, so frame costs can be measured headless:
+    // render.full repaints all 81 cells, as restyling every cell on each update used to;
+    // the others repaint only what an edit, a selection move or a check result changed
+    private static IntUnaryOperator render(String operation) {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        SudokuBoard puzzle = corpus("easy")[0];
+        BoardRenderer renderer = new BoardRenderer(50);
+        ImageSurface surface = new ImageSurface(renderer.getSize());
+        for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+            renderer.setGiven(cell, puzzle.get(cell) != 0);
+            renderer.setDigit(cell, puzzle.get(cell));
+        }
+        renderer.paint(surface);
+        int[] empty = new int[SudokuBoard.CELLS];
+        int count = 0;
+        for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+            if (puzzle.get(cell) == 0) {
+                empty[count++] = cell;
+            }
+        }
+        int blanks = count;
+
+        switch (operation) {
+            case "render.startup":
+                return i -> {
+                    BoardRenderer fresh = new BoardRenderer(50);
+                    for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+                        fresh.setGiven(cell, puzzle.get(cell) != 0);
+                        fresh.setDigit(cell, puzzle.get(cell));
+                    }
+                    return fresh.paint(new ImageSurface(fresh.getSize()));
+                };
+            case "render.full":
+                return i -> {
+                    renderer.invalidateAll();
+                    return renderer.paint(surface);
+                };
+            case "render.entry":
+                return i -> {
+                    int cell = empty[i % blanks];
+                    renderer.setDigit(cell, i % 10);
+                    for (int peer : ConflictTracker.PEERS[cell]) {
+                        renderer.setConflict(peer, renderer.getDigit(peer) == i % 10 && i % 10 != 0);
+                    }
+                    return renderer.paint(surface);
+                };
+            case "render.select":
+                return i -> {
+                    renderer.select(i % SudokuBoard.CELLS);
+                    return renderer.paint(surface);
+                };
+            case "render.check":
+                return i -> {
+                    for (int j = 0; j < blanks; j++) {
+                        renderer.setMark(empty[j], (i + j) % 2 == 0 ? BoardRenderer.Mark.CORRECT : BoardRenderer.Mark.WRONG);
+                    }
+                    int painted = renderer.paint(surface);
+                    renderer.clearMarks();
+                    return painted + renderer.paint(surface);
+                };
+            default:
+                throw new IllegalArgumentException("Unknown benchmark case " + operation);
+        }
+    }
+
+    // Draws into an RGB image with the same 20 pt font as the board view
+    private static final class ImageSurface implements BoardRenderer.Surface {
+        private static final String[] DIGITS = {"", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+
+        private final Graphics2D graphics;
+        private final int[] keys = new int[8];
+        private final Color[] colors = new Color[8];
+        private final int[] widths = new int[DIGITS.length];
+        private final int baseline; // from the centre line
+        private int count;
+
+        ImageSurface(double size) {
+            BufferedImage image = new BufferedImage((int) Math.ceil(size), (int) Math.ceil(size), BufferedImage.TYPE_INT_RGB);
+            graphics = image.createGraphics();
+            graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 20));
+            FontMetrics metrics = graphics.getFontMetrics();
+            for (int digit = 1; digit < DIGITS.length; digit++) {
+                widths[digit] = metrics.stringWidth(DIGITS[digit]);
+            }
+            baseline = (metrics.getAscent() - metrics.getDescent()) / 2;
+        }
+
+        @Override
+        public void fillRect(double x, double y, double width, double height, int argb) {
+            graphics.setColor(color(argb));
+            graphics.fillRect((int) x, (int) y, (int) width, (int) height);
+        }
+
+        @Override
+        public void drawDigit(int digit, double centerX, double centerY, int argb) {
+            graphics.setColor(color(argb));
+            graphics.drawString(DIGITS[digit], (int) centerX - widths[digit] / 2, (int) centerY + baseline);
+        }
+
+        private Color color(int argb) {
+            for (int i = 0; i < count; i++) {
+                if (keys[i] == argb) {
+                    return colors[i];
+                }
+            }
+            Color color = new Color(argb, true);
+            if (count < keys.length) {
+                keys[count] = argb;
+                colors[count++] = color;
+            }
+            return color;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+// Fixed puzzle sets used by the benchmarks, so results stay comparable between commits.
+// Every puzzle here has exactly one solution.
+public final class BenchmarkCorpus {
+    // Published beginner puzzles, mostly solved by singles
+    public static final String[] EASY = {
+            "003020600900305001001806400008102900700000008006708200002609500800203009005010300",
+            "200080300060070084030500209000105408000000000402706000301007040720040060004010003",
+            "000000907000420180000705026100904000050000040000507009920108000034059000507000000",
+    };
+
+    // Well-known hard puzzles that need real search
+    public static final String[] HARD = {
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400",
+            "85...24..72......9..4.........1.7..23.5...9...4...........8..7..17..........36.4.",
+            "..53.....8......2..7..1.5..4....53...1..7...6..32...8..6.5....9..4....3......97..",
+            "12.3....435....1....4........54..2..6...7.........8.9...31..5.......9.7.....6...8",
+    };
+
+    // Minimal puzzles with 17 givens
+    public static final String[] SEVENTEEN_CLUE = {
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000",
+            "000000010400000000020000000000050604008000300001090000300400200050100000000807000",
+            "000000012000035000000600070700000300000400800100000000000120000080000040050000600",
+            "000000012003600000000007000410020000000500300700000600280000040000300500000000000",
+            "000000012008030000000000040120500000000004700060000000507000300000620000000100000",
+            "000000012040050000000009000070600400000100000000000050000087500601000300200000000",
+            "000000012050400000000000030700600400001000000000080000920000800000510700000003000",
+    };
+
+    // Puzzles built to defeat fixed 1-9 digit order and row-major cell order
+    public static final String[] ADVERSARIAL = {
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9",
+            "900800000000000500000000000020010003010000060000400070708600000000030100400000200",
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+            "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+            "6.....8.3.4.7.................5.4.7.3..2.....1.6.......2.....5.....8.6......1....",
+    };
+
+    private BenchmarkCorpus() {
+    }
+
+    // Parses 81-character puzzles ('0' or '.' for blanks) into boards
+    public static SudokuBoard[] boards(String[] puzzles) {
+        SudokuBoard[] boards = new SudokuBoard[puzzles.length];
+        for (int i = 0; i < puzzles.length; i++) {
+            boards[i] = new SudokuBoard();
+            for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+                char c = puzzles[i].charAt(cell);
+                boards[i].set(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE, c == '.' ? 0 : c - '0');
+            }
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Random access into a memory-mapped PuzzleArchive of 65536 records: a whole board, the raw
+// digits, and a single cell
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class ArchiveBenchmark {
+    private Workload readBoard;
+    private Workload readBytes;
+    private Workload getCell;
+
+    @Setup
+    public void setUp() {
+        readBoard = new Workload("archive.readBoard");
+        readBytes = new Workload("archive.readBytes");
+        getCell = new Workload("archive.getCell");
+    }
+
+    @Benchmark
+    public int readBoard() {
+        return readBoard.run();
+    }
+
+    @Benchmark
+    public int readBytes() {
+        return readBytes.run();
+    }
+
+    @Benchmark
+    public int getCell() {
+        return getCell.run();
+    }
+}
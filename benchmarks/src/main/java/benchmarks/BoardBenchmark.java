@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The per-board hot paths: validation, candidate scans and canonical hashing
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class BoardBenchmark {
+    @Param({"easy", "hard", "17clue", "adversarial"})
+    public String corpus;
+
+    private Workload isConsistent;
+    private Workload candidates;
+    private Workload canonicalHash;
+
+    @Setup
+    public void setUp() {
+        isConsistent = new Workload("validate.isConsistent/" + corpus);
+        candidates = new Workload("validate.candidates/" + corpus);
+        canonicalHash = new Workload("canonical.hash/" + corpus);
+    }
+
+    @Benchmark
+    public int isConsistent() {
+        return isConsistent.run();
+    }
+
+    @Benchmark
+    public int candidates() {
+        return candidates.run();
+    }
+
+    @Benchmark
+    public int canonicalHash() {
+        return canonicalHash.run();
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Generation: full 9x9 grids, puzzles dug down to a clue count, and the 16x16 and 25x25 grids
+// only the general engine handles, which it then solves back from a generated puzzle. Each
+// state carries only the parameters of the benchmarks that use it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+public class GenerateBenchmark {
+    @State(Scope.Thread)
+    public static class Grid {
+        Workload generate;
+
+        @Setup
+        public void setUp() {
+            generate = new Workload("generate.grid");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Clues {
+        @Param({"24", "30", "36"})
+        public int clues;
+
+        Workload generate;
+
+        @Setup
+        public void setUp() {
+            generate = new Workload("generate.clues/" + clues);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Large {
+        @Param({"16", "25"})
+        public int side;
+
+        Workload generate;
+        Workload solve;
+
+        @Setup
+        public void setUp() {
+            generate = new Workload("generate.general/" + side);
+            solve = new Workload("solve.generated/" + side);
+        }
+    }
+
+    @Benchmark
+    public int grid(Grid state) {
+        return state.generate.run();
+    }
+
+    @Benchmark
+    public int puzzle(Clues state) {
+        return state.generate.run();
+    }
+
+    @Benchmark
+    public int largeGrid(Large state) {
+        return state.generate.run();
+    }
+
+    @Benchmark
+    public int largeSolve(Large state) {
+        return state.solve.run();
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Rating a puzzle with LogicSolver, and walking it hint by hint with HintEngine
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class LogicBenchmark {
+    @Param({"easy", "hard", "17clue", "adversarial"})
+    public String corpus;
+
+    private Workload rate;
+    private Workload hintWalk;
+
+    @Setup
+    public void setUp() {
+        rate = new Workload("rate.logic/" + corpus);
+        hintWalk = new Workload("hint.walk/" + corpus);
+    }
+
+    @Benchmark
+    public int rate() {
+        return rate.run();
+    }
+
+    @Benchmark
+    public int hintWalk() {
+        return hintWalk.run();
+    }
+}
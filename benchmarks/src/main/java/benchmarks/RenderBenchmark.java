@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Frame costs of BoardRenderer on a headless Java2D image: a fresh board, a full repaint, and
+// the partial repaints after an entry, a selection move and a check
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+    private Workload startup;
+    private Workload full;
+    private Workload entry;
+    private Workload select;
+    private Workload check;
+
+    @Setup
+    public void setUp() {
+        startup = new Workload("render.startup");
+        full = new Workload("render.full");
+        entry = new Workload("render.entry");
+        select = new Workload("render.select");
+        check = new Workload("render.check");
+    }
+
+    @Benchmark
+    public int startup() {
+        return startup.run();
+    }
+
+    @Benchmark
+    public int full() {
+        return full.run();
+    }
+
+    @Benchmark
+    public int entry() {
+        return entry.run();
+    }
+
+    @Benchmark
+    public int select() {
+        return select.run();
+    }
+
+    @Benchmark
+    public int check() {
+        return check.run();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Every 9x9 backend on every corpus: solving, and the uniqueness check that stops at a second
+// solution. The general any-size engine runs the same puzzles for comparison.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class SolveBenchmark {
+    @Param({"easy", "hard", "17clue", "adversarial"})
+    public String corpus;
+
+    @Param({"bitmask", "dlx", "variant", "general"})
+    public String solver;
+
+    private Workload solve;
+    private Workload unique;
+
+    @Setup
+    public void setUp() {
+        solve = new Workload("solve." + solver + "/" + corpus);
+        unique = new Workload("unique." + solver + "/" + corpus);
+    }
+
+    @Benchmark
+    public int solve() {
+        return solve.run();
+    }
+
+    @Benchmark
+    public int unique() {
+        return unique.run();
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// PuzzleParser and PuzzleSerializer on the hard corpus, as one puzzle per line and as 9x9 grids
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class TextBenchmark {
+    private Workload parseLine;
+    private Workload parseGrid;
+    private Workload serializeLine;
+    private Workload serializeGrid;
+
+    @Setup
+    public void setUp() {
+        parseLine = new Workload("parse.line");
+        parseGrid = new Workload("parse.grid");
+        serializeLine = new Workload("serialize.line");
+        serializeGrid = new Workload("serialize.grid");
+    }
+
+    @Benchmark
+    public int parseLine() {
+        return parseLine.run();
+    }
+
+    @Benchmark
+    public int parseGrid() {
+        return parseGrid.run();
+    }
+
+    @Benchmark
+    public int serializeLine() {
+        return serializeLine.run();
+    }
+
+    @Benchmark
+    public int serializeGrid() {
+        return serializeGrid.run();
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// VariantSolver under each extra rule set, on unique puzzles dug out of its own grids
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class VariantBenchmark {
+    @Param({"diagonal", "jigsaw", "killer"})
+    public String variant;
+
+    private Workload solve;
+    private Workload unique;
+
+    @Setup
+    public void setUp() {
+        solve = new Workload("solve.variant/" + variant);
+        unique = new Workload("unique.variant/" + variant);
+    }
+
+    @Benchmark
+    public int solve() {
+        return solve.run();
+    }
+
+    @Benchmark
+    public int unique() {
+        return unique.run();
+    }
+}
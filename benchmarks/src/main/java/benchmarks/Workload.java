@@ -0,0 +1,29 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.IntUnaryOperator;
+
+// One case from BenchmarkCases and the index of its next input. BenchmarkCases sits in the
+// default package with the code under test, which this package cannot name, so it is looked up
+// by name once per trial; the measured calls go straight to the case.
+final class Workload {
+    private final IntUnaryOperator operation;
+    private int next;
+
+    Workload(String name) {
+        try {
+            this.operation = (IntUnaryOperator) Class.forName("BenchmarkCases")
+                    .getMethod("create", String.class)
+                    .invoke(null, name);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not set up " + name, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkCases is missing from the classpath", e);
+        }
+    }
+
+    // Runs the case on its next input
+    int run() {
+        return operation.applyAsInt(next++);
+    }
+}